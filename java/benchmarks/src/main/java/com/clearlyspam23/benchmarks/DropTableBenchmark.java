@@ -0,0 +1,166 @@
+package com.clearlyspam23.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.clearlyspam23.rpglogic.AliasDropTable;
+import com.clearlyspam23.rpglogic.DropTable;
+import com.clearlyspam23.rpglogic.DynamicDropTable;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * benchmarks for rolling a DropTable, and the AliasDropTable it compiles to
+ * the tables are filled with entries whose chances add up to a little under the table's maximum, 
+ * so that most rolls have to scan deep into the table and a few drop nothing.
+ * 
+ * DynamicDropTable is benchmarked alongside them, both rolling and changing a weight before each roll.
+ * 
+ * getValue() goes through Math.random(), which every thread shares, so the threaded variants show how badly that contends
+ * compared to rolling with a generator per thread.
+ * 
+ * @author clearlyspam23
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DropTableBenchmark {
+	
+	@State(Scope.Benchmark)
+	public static class Tables {
+		
+		@Param({"10", "100", "1000", "10000"})
+		public int entries;
+		
+		public DropTable<Integer> table;
+		public AliasDropTable<Integer> alias;
+		public DynamicDropTable<Integer> dynamic;
+		
+		@Setup(Level.Trial)
+		public void setup(){
+			SplittableRandom random = new SplittableRandom(42);
+			float[] weights = new float[entries];
+			float total = 0;
+			for(int i = 0; i < entries; i++)
+			{
+				weights[i] = (float) (random.nextDouble()+0.01);
+				total+=weights[i];
+			}
+			//scale the weights so that they cover 95 out of the default 100
+			table = new DropTable<Integer>();
+			dynamic = new DynamicDropTable<Integer>();
+			for(int i = 0; i < entries; i++){
+				table.addEntry(Integer.valueOf(i), weights[i]*95f/total);
+				dynamic.addEntry(Integer.valueOf(i), weights[i]*95f/total);
+			}
+			alias = table.compile();
+		}
+		
+	}
+	
+	@State(Scope.Thread)
+	public static class Generator {
+		
+		public SplittableRandom random;
+		public DynamicDropTable<Integer> dynamic;
+		
+		@Setup(Level.Trial)
+		public void setup(Tables tables){
+			random = new SplittableRandom(Thread.currentThread().getId());
+			dynamic = tables.dynamic.copy();
+		}
+		
+	}
+	
+	@Benchmark
+	public Integer getValue(Tables tables){
+		return tables.table.getValue();
+	}
+	
+	@Benchmark
+	public Integer getValueGenerator(Tables tables, Generator generator){
+		return tables.table.getValue(generator.random);
+	}
+	
+	@Benchmark
+	public Integer aliasGetValue(Tables tables){
+		return tables.alias.getValue();
+	}
+	
+	@Benchmark
+	public Integer aliasGetValueGenerator(Tables tables, Generator generator){
+		return tables.alias.getValue(generator.random);
+	}
+	
+	@Benchmark
+	public Integer dynamicGetValueGenerator(Tables tables, Generator generator){
+		return tables.dynamic.getValue(generator.random);
+	}
+	
+	@Benchmark
+	public Integer dynamicUpdateAndRoll(Tables tables, Generator generator){
+		//each thread changes its own copy, the way a per player table would be used
+		DynamicDropTable<Integer> table = generator.dynamic;
+		int id = generator.random.nextInt(tables.entries);
+		table.updateWeight(id, (float) generator.random.nextDouble(0, 190.0/tables.entries));
+		return table.getValue(generator.random);
+	}
+	
+	@Benchmark
+	@Threads(Threads.MAX)
+	public Integer getValueThreaded(Tables tables){
+		return tables.table.getValue();
+	}
+	
+	@Benchmark
+	@Threads(Threads.MAX)
+	public Integer getValueGeneratorThreaded(Tables tables, Generator generator){
+		return tables.table.getValue(generator.random);
+	}
+	
+	@Benchmark
+	@Threads(Threads.MAX)
+	public Integer aliasGetValueGeneratorThreaded(Tables tables, Generator generator){
+		return tables.alias.getValue(generator.random);
+	}
+
+}
@@ -0,0 +1,149 @@
+package com.clearlyspam23.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.clearlyspam23.hexlogic.HexGrid;
+import com.clearlyspam23.hexlogic.HexLocation;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * benchmarks for reading tiles out of a HexGrid
+ * each invocation reads LOOKUPS tiles at pre-rolled random locations, so the grid size decides how much of it fits in cache.
+ * the hex and raw reads use the same locations, so the difference between them is the cost of the conversion.
+ * 
+ * the threaded variants read the same shared grid from several threads at once, with each thread using its own locations
+ * 
+ * @author clearlyspam23
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class HexGridBenchmark {
+	
+	public static final int LOOKUPS = 1024;
+	
+	@State(Scope.Benchmark)
+	public static class GridState {
+		
+		@Param({"64", "1024", "4096"})
+		public int size;
+		
+		public HexGrid<Object> grid;
+		
+		@Setup(Level.Trial)
+		public void setup(){
+			grid = new HexGrid<Object>(size, size);
+			//a handful of shared tiles, so that the grid itself is what takes up the memory
+			Object[] tiles = new Object[16];
+			for(int i = 0; i < tiles.length; i++)
+				tiles[i] = new Object();
+			for(int y = 0; y < size; y++)
+				for(int x = 0; x < size; x++)
+					grid.setAtRawLocation(x, y, tiles[(x ^ y) & 15]);
+		}
+		
+	}
+	
+	@State(Scope.Thread)
+	public static class Lookups {
+		
+		public int[] rawX = new int[LOOKUPS];
+		public int[] rawY = new int[LOOKUPS];
+		public int[] hexX = new int[LOOKUPS];
+		public HexLocation[] locations = new HexLocation[LOOKUPS];
+		
+		@Setup(Level.Trial)
+		public void setup(GridState state){
+			SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+			for(int i = 0; i < LOOKUPS; i++)
+			{
+				rawX[i] = random.nextInt(state.size);
+				rawY[i] = random.nextInt(state.size);
+				hexX[i] = rawX[i] - rawY[i]/2;
+				locations[i] = new HexLocation(hexX[i], rawY[i]);
+			}
+		}
+		
+	}
+	
+	@Benchmark
+	public void getHexLocation(GridState state, Lookups lookups, Blackhole bh){
+		HexGrid<Object> grid = state.grid;
+		HexLocation[] locations = lookups.locations;
+		for(int i = 0; i < LOOKUPS; i++)
+			bh.consume(grid.get(locations[i]));
+	}
+	
+	@Benchmark
+	public void getCoordinates(GridState state, Lookups lookups, Blackhole bh){
+		HexGrid<Object> grid = state.grid;
+		int[] x = lookups.hexX;
+		int[] y = lookups.rawY;
+		for(int i = 0; i < LOOKUPS; i++)
+			bh.consume(grid.get(x[i], y[i]));
+	}
+	
+	@Benchmark
+	public void getAtRawLocation(GridState state, Lookups lookups, Blackhole bh){
+		HexGrid<Object> grid = state.grid;
+		int[] x = lookups.rawX;
+		int[] y = lookups.rawY;
+		for(int i = 0; i < LOOKUPS; i++)
+			bh.consume(grid.getAtRawLocation(x[i], y[i]));
+	}
+	
+	@Benchmark
+	@Threads(Threads.MAX)
+	public void getHexLocationThreaded(GridState state, Lookups lookups, Blackhole bh){
+		getHexLocation(state, lookups, bh);
+	}
+	
+	@Benchmark
+	@Threads(Threads.MAX)
+	public void getCoordinatesThreaded(GridState state, Lookups lookups, Blackhole bh){
+		getCoordinates(state, lookups, bh);
+	}
+
+}
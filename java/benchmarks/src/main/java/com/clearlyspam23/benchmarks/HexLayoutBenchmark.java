@@ -0,0 +1,118 @@
+package com.clearlyspam23.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.clearlyspam23.hexlogic.HexLayout;
+import com.clearlyspam23.hexlogic.HexLocation;
+import com.clearlyspam23.hexlogic.HexOrientation;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * benchmarks for converting between pixels and hexagons with a HexLayout
+ * each invocation converts the given number of pre-rolled points, comparing one point at a time against the batch conversions
+ * 
+ * @author clearlyspam23
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HexLayoutBenchmark {
+	
+	@Param({"1000", "50000"})
+	public int points;
+	
+	@Param({"pointy", "flat"})
+	public HexOrientation orientation;
+	
+	private HexLayout layout;
+	private float[] pixelX;
+	private float[] pixelY;
+	private int[] hexX;
+	private int[] hexY;
+	private HexLocation location = new HexLocation();
+	
+	@Setup(Level.Trial)
+	public void setup(){
+		layout = new HexLayout(orientation, 24f, 24f, 640f, 360f);
+		SplittableRandom random = new SplittableRandom(7);
+		pixelX = new float[points];
+		pixelY = new float[points];
+		hexX = new int[points];
+		hexY = new int[points];
+		for(int i = 0; i < points; i++){
+			pixelX[i] = (float) random.nextDouble(0, 1920);
+			pixelY[i] = (float) random.nextDouble(0, 1080);
+			hexX[i] = random.nextInt(-40, 40);
+			hexY[i] = random.nextInt(-40, 40);
+		}
+	}
+	
+	@Benchmark
+	public void fromPixel(Blackhole bh){
+		for(int i = 0; i < points; i++)
+			bh.consume(layout.fromPixel(pixelX[i], pixelY[i], location).x());
+	}
+	
+	@Benchmark
+	public int[] fromPixels(){
+		layout.fromPixels(pixelX, pixelY, hexX, hexY, 0, points);
+		return hexX;
+	}
+	
+	@Benchmark
+	public void toPixel(Blackhole bh){
+		for(int i = 0; i < points; i++){
+			bh.consume(layout.toPixelX(hexX[i], hexY[i]));
+			bh.consume(layout.toPixelY(hexX[i], hexY[i]));
+		}
+	}
+	
+	@Benchmark
+	public float[] toPixels(){
+		layout.toPixels(hexX, hexY, pixelX, pixelY, 0, points);
+		return pixelX;
+	}
+
+}
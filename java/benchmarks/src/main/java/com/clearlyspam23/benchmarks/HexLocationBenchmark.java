@@ -0,0 +1,164 @@
+package com.clearlyspam23.benchmarks;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.clearlyspam23.hexlogic.HexDirection;
+import com.clearlyspam23.hexlogic.HexLine;
+import com.clearlyspam23.hexlogic.HexLineVisitor;
+import com.clearlyspam23.hexlogic.HexLocation;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * benchmarks for the math on HexLocation
+ * each invocation works through PAIRS pre-rolled pairs of locations, where every pair is exactly length hexagons apart,
+ * so distanceTo and getDirectionTowards show the per-call cost, and getLine shows how that cost grows with the length of the line.
+ * HexLine is benchmarked on the same pairs, as the allocation free alternative to getLine
+ * 
+ * @author clearlyspam23
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HexLocationBenchmark {
+	
+	public static final int PAIRS = 256;
+	
+	@Param({"1", "10", "50", "200"})
+	public int length;
+	
+	private HexLocation[] starts = new HexLocation[PAIRS];
+	private HexLocation[] ends = new HexLocation[PAIRS];
+	private int[] lineBuffer;
+	private SumVisitor visitor = new SumVisitor();
+	
+	@Setup(Level.Trial)
+	public void setup(){
+		SplittableRandom random = new SplittableRandom(Thread.currentThread().getId());
+		for(int i = 0; i < PAIRS; i++)
+		{
+			HexLocation start = new HexLocation(random.nextInt(-1000, 1000), random.nextInt(-1000, 1000));
+			//walk part of the way in one direction, and the rest in the next direction around, so the end is exactly length away
+			//and the lines do not all run along an axis
+			int dir = random.nextInt(6);
+			int first = random.nextInt(length+1);
+			HexLocation end = start.copy()
+					.translate(HexDirection.get(dir), first)
+					.translate(HexDirection.get((dir+1)%6), length-first);
+			starts[i] = start;
+			ends[i] = end;
+		}
+		lineBuffer = new int[length+1];
+	}
+	
+	@Benchmark
+	public int distanceTo(){
+		int sum = 0;
+		for(int i = 0; i < PAIRS; i++)
+			sum+=starts[i].distanceTo(ends[i]);
+		return sum;
+	}
+	
+	@Benchmark
+	public void getDirectionTowards(Blackhole bh){
+		for(int i = 0; i < PAIRS; i++)
+			bh.consume(starts[i].getDirectionTowards(ends[i]));
+	}
+	
+	@Benchmark
+	public void getLine(Blackhole bh){
+		for(int i = 0; i < PAIRS; i++)
+		{
+			List<HexLocation> line = HexLocation.getLine(starts[i], ends[i]);
+			bh.consume(line);
+		}
+	}
+	
+	@Benchmark
+	public int hexLineVisitor(){
+		int sum = 0;
+		for(int i = 0; i < PAIRS; i++)
+			sum+=HexLine.trace(starts[i], ends[i], visitor);
+		return sum + visitor.sum;
+	}
+	
+	@Benchmark
+	public int hexLineBuffer(){
+		int sum = 0;
+		for(int i = 0; i < PAIRS; i++)
+		{
+			HexLocation s = starts[i];
+			HexLocation e = ends[i];
+			int n = HexLine.trace(s.x(), s.y(), e.x(), e.y(), lineBuffer, 0);
+			sum+=lineBuffer[n-1];
+		}
+		return sum;
+	}
+	
+	@Benchmark
+	@Threads(Threads.MAX)
+	public void getLineThreaded(Blackhole bh){
+		getLine(bh);
+	}
+	
+	@Benchmark
+	@Threads(Threads.MAX)
+	public void getDirectionTowardsThreaded(Blackhole bh){
+		getDirectionTowards(bh);
+	}
+	
+	private static class SumVisitor implements HexLineVisitor {
+		
+		public int sum;
+		
+		public boolean visit(int x, int y){
+			sum+=x+y;
+			return true;
+		}
+		
+	}
+
+}
@@ -0,0 +1,172 @@
+package com.clearlyspam23.checks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import com.clearlyspam23.hexlogic.HexDirection;
+import com.clearlyspam23.hexlogic.HexEdgeMask;
+import com.clearlyspam23.hexlogic.HexFlowField;
+import com.clearlyspam23.hexlogic.HexGrid;
+import com.clearlyspam23.hexlogic.HexPathfinder;
+import com.clearlyspam23.hexlogic.HexSearchContext;
+import com.clearlyspam23.hexlogic.TileCost;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * checks the searches that step through a HexEdgeMask against a plain Dijkstra's search, over random grids with random walls, as tiles and edges change.
+ * checked are: that every edge agrees on both of its sides, HexPathfinder.findPath and findReachable,
+ * and that a HexFlowField kept up to date with update() gives the same distances as one computed from scratch, with none of its directions crossing a closed edge.
+ * half the trials use no mask at all, which checks the bounds based masks used in that case.
+ * 
+ * run with: java -cp target/benchmarks.jar com.clearlyspam23.checks.HexEdgeMaskCheck [seed]
+ * exits with status 1 if any mismatch is found
+ * 
+ * @author clearlyspam23
+ *
+ */
+public class HexEdgeMaskCheck {
+	
+	private static final TileCost<Integer> COST = new TileCost<Integer>(){
+		
+		public int getCost(Integer tile){
+			return tile;
+		}
+		
+	};
+	
+	public static void main(String[] args){
+		long seed = args.length > 0 ? Long.parseLong(args[0]) : 1;
+		Random random = new Random(seed);
+		int failures = 0;
+		int checks = 0;
+		for(int trial = 0; trial < 100; trial++){
+			int width = 1 + random.nextInt(30);
+			int height = 1 + random.nextInt(30);
+			int size = width*height;
+			HexGrid<Integer> grid = new HexGrid<Integer>(width, height);
+			for(int i = 0; i < size; i++)
+				grid.setAtIndex(i, randomCost(random));
+			boolean masked = random.nextBoolean();
+			HexEdgeMask edges = masked ? new HexEdgeMask(width, height) : null;
+			if(masked)
+				for(int i = 0; i < size/2; i++)
+					edges.setOpen(random.nextInt(size), HexDirection.get(random.nextInt(6)), false);
+			HexPathfinder<Integer> pathfinder = new HexPathfinder<Integer>(grid, COST, 1, edges);
+			HexSearchContext context = pathfinder.createContext();
+			HexFlowField<Integer> field = new HexFlowField<Integer>(grid, COST, edges);
+			field.addGoal(random.nextInt(size));
+			field.addGoal(random.nextInt(size));
+			field.compute();
+			for(int step = 0; step < 30; step++){
+				checks++;
+				boolean ok = true;
+				if(masked){
+					for(int i = 0; i < size&&ok; i++){
+						for(int d = 0; d < 6&&ok; d++){
+							int neighbor = grid.getNeighborIndex(i, HexDirection.get(d));
+							boolean open = edges.isOpen(i, d);
+							ok = neighbor<0 ? !open : open==edges.isOpen(neighbor, (d+3)%6);
+						}
+					}
+				}
+				int start = random.nextInt(size);
+				int goal = random.nextInt(size);
+				int[] distances = dijkstra(grid, edges, start);
+				int expected = distances[goal]==Integer.MAX_VALUE ? -1 : distances[goal];
+				ok &= pathfinder.findPath(context, start, goal)==expected;
+				int budget = random.nextInt(20);
+				int reachable = 0;
+				for(int i = 0; i < size; i++)
+					if(distances[i]<=budget)
+						reachable++;
+				ok &= pathfinder.findReachable(context, start, budget, null)==reachable;
+				for(int i = 0; i < 3; i++){
+					if(masked&&random.nextBoolean()){
+						int index = random.nextInt(size);
+						HexDirection direction = HexDirection.get(random.nextInt(6));
+						edges.setOpen(index, direction, random.nextBoolean());
+						field.edgeChanged(index, direction);
+					}
+					else{
+						int index = random.nextInt(size);
+						grid.setAtIndex(index, randomCost(random));
+						field.tileChanged(index);
+					}
+				}
+				field.update();
+				HexFlowField<Integer> fresh = new HexFlowField<Integer>(grid, COST, edges);
+				for(int i = 0; i < size; i++)
+					if(field.isGoal(i))
+						fresh.addGoal(i);
+				fresh.compute();
+				for(int i = 0; i < size&&ok; i++){
+					ok = field.getDistance(i)==fresh.getDistance(i);
+					HexDirection direction = field.getDirection(i);
+					if(direction!=null)
+						ok &= grid.getNeighborIndex(i, direction)>=0&&(edges==null||edges.isOpen(i, direction));
+				}
+				if(!ok){
+					failures++;
+					System.out.println("mismatch in trial " + trial + " (" + width + "x" + height + ", " + (masked ? "masked" : "unmasked") + ") at step " + step);
+				}
+			}
+		}
+		System.out.println(checks + " checks, " + failures + " failures");
+		if(failures>0)
+			System.exit(1);
+	}
+	
+	private static int randomCost(Random random){
+		return random.nextInt(8)==0 ? -1 : 1 + random.nextInt(5);
+	}
+	
+	//the cost of the cheapest path from the start to every tile, found with the simplest Dijkstra's search, picking the closest unsettled tile each time
+	private static int[] dijkstra(HexGrid<Integer> grid, HexEdgeMask edges, int start){
+		int size = grid.getSize();
+		int[] distances = new int[size];
+		boolean[] settled = new boolean[size];
+		Arrays.fill(distances, Integer.MAX_VALUE);
+		distances[start] = 0;
+		while(true){
+			int current = -1;
+			for(int i = 0; i < size; i++)
+				if(!settled[i]&&distances[i]!=Integer.MAX_VALUE&&(current<0||distances[i]<distances[current]))
+					current = i;
+			if(current<0)
+				return distances;
+			settled[current] = true;
+			for(int d = 0; d < 6; d++){
+				int neighbor = grid.getNeighborIndex(current, HexDirection.get(d));
+				if(neighbor<0||(edges!=null&&!edges.isOpen(current, d)))
+					continue;
+				int cost = grid.getAtIndex(neighbor);
+				if(cost>=0&&distances[current]+cost<distances[neighbor])
+					distances[neighbor] = distances[current]+cost;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,165 @@
+package com.clearlyspam23.checks;
+
+import java.util.Random;
+
+import com.clearlyspam23.hexlogic.HexGrid;
+import com.clearlyspam23.hexlogic.HexHierarchicalPathfinder;
+import com.clearlyspam23.hexlogic.HexPathfinder;
+import com.clearlyspam23.hexlogic.HexSearchContext;
+import com.clearlyspam23.hexlogic.TileCost;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * checks HexHierarchicalPathfinder against flat A* (HexPathfinder), over random grids that are open, scattered with walls, or of random costs, for a range of cluster sizes.
+ * for random pairs of passable tiles, checked are: that a path is found exactly when one exists, 
+ * that its cost is never below the cheapest and at most MAX_RATIOS times it plus MAX_EXTRA (both for that kind of grid), 
+ * where the extra allows for short paths, which a single step out of the way can make many times longer, 
+ * and that refining every step between its waypoints gives tiles costing the same as the path.
+ * after random tile changes, the costs found after update() are checked against those found after rebuild().
+ * the mean and worst ratio to the cheapest cost are printed for each cluster size and kind of grid.
+ * 
+ * run with: java -cp target/benchmarks.jar com.clearlyspam23.checks.HexHierarchicalPathfinderCheck [seed]
+ * exits with status 1 if any mismatch is found
+ * 
+ * @author clearlyspam23
+ *
+ */
+public class HexHierarchicalPathfinderCheck {
+	
+	//open ground, scattered walls, and random costs with walls. entrances are picked without looking at tile costs, so the last is allowed the most slack
+	private static final String[] TERRAINS = {"open", "walls", "costs"};
+	private static final double[] MAX_RATIOS = {1.3, 1.3, 1.6};
+	//two steps onto the most expensive tile of each kind of grid
+	private static final int[] MAX_EXTRA = {2, 2, 10};
+	private static final int[] CLUSTER_SIZES = {2, 4, 8, 16, 32};
+	
+	private static final TileCost<Integer> COST = new TileCost<Integer>(){
+		
+		public int getCost(Integer tile){
+			return tile;
+		}
+		
+	};
+	
+	public static void main(String[] args){
+		long seed = args.length > 0 ? Long.parseLong(args[0]) : 1;
+		Random random = new Random(seed);
+		int failures = 0;
+		int checks = 0;
+		for(int clusterSize : CLUSTER_SIZES){
+			for(int terrain = 0; terrain < TERRAINS.length; terrain++){
+				double ratioSum = 0;
+				double worstRatio = 1;
+				int paths = 0;
+				for(int trial = 0; trial < 10; trial++){
+					int width = 1 + random.nextInt(128);
+					int height = 1 + random.nextInt(128);
+					int size = width*height;
+					HexGrid<Integer> grid = new HexGrid<Integer>(width, height);
+					for(int i = 0; i < size; i++)
+						grid.setAtIndex(i, randomTile(random, terrain));
+					HexHierarchicalPathfinder<Integer> hierarchical = new HexHierarchicalPathfinder<Integer>(grid, COST, clusterSize);
+					HexPathfinder<Integer> flat = new HexPathfinder<Integer>(grid, COST);
+					HexSearchContext context = hierarchical.createContext();
+					HexSearchContext refineContext = hierarchical.createContext();
+					int[] waypoints = new int[size];
+					for(int pair = 0; pair < 50; pair++){
+						int start = random.nextInt(size);
+						int goal = random.nextInt(size);
+						if(grid.getAtIndex(start)<0)
+							continue;
+						checks++;
+						int expected = flat.findPath(context, start, goal);
+						int actual = hierarchical.findPath(context, start, goal);
+						if(expected>0&&actual>=0){
+							double ratio = actual/(double)expected;
+							ratioSum+=ratio;
+							worstRatio = Math.max(worstRatio, ratio);
+							paths++;
+						}
+						boolean ok = expected<0 ? actual<0 : actual>=expected&&actual<=expected*MAX_RATIOS[terrain] + MAX_EXTRA[terrain];
+						if(ok&&actual>=0){
+							int count = context.getPath(goal, waypoints);
+							int refined = 0;
+							for(int i = 0; i+1 < count&&ok; i++){
+								int step = hierarchical.refine(refineContext, waypoints[i], waypoints[i+1]);
+								ok = step>=0;
+								refined+=step;
+							}
+							ok &= refined==actual;
+						}
+						if(!ok){
+							failures++;
+							System.out.println("path mismatch in trial " + trial + " (" + width + "x" + height + ", " + TERRAINS[terrain] + ", clusters of " + clusterSize + ") from " + start + " to " + goal 
+									+ ": expected " + expected + ", found " + actual);
+						}
+					}
+					for(int i = 0; i < 1 + size/50; i++){
+						int index = random.nextInt(size);
+						grid.setAtIndex(index, randomTile(random, terrain));
+						hierarchical.tileChanged(index);
+					}
+					hierarchical.update();
+					int[] starts = new int[20];
+					int[] goals = new int[20];
+					int[] updated = new int[20];
+					for(int i = 0; i < starts.length; i++){
+						starts[i] = random.nextInt(size);
+						goals[i] = random.nextInt(size);
+						updated[i] = hierarchical.findPath(context, starts[i], goals[i]);
+					}
+					int nodes = hierarchical.getNodeCount();
+					hierarchical.rebuild();
+					checks++;
+					boolean ok = nodes==hierarchical.getNodeCount();
+					for(int i = 0; i < starts.length&&ok; i++)
+						ok = updated[i]==hierarchical.findPath(context, starts[i], goals[i]);
+					if(!ok){
+						failures++;
+						System.out.println("update mismatch in trial " + trial + " (" + width + "x" + height + ", " + TERRAINS[terrain] + ", clusters of " + clusterSize + ")");
+					}
+				}
+				System.out.println("clusters of " + clusterSize + ", " + TERRAINS[terrain] + ": mean ratio " + String.format("%.4f", ratioSum/Math.max(paths, 1)) 
+						+ ", worst ratio " + String.format("%.4f", worstRatio) + " over " + paths + " paths");
+			}
+		}
+		System.out.println(checks + " checks, " + failures + " failures");
+		if(failures>0)
+			System.exit(1);
+	}
+	
+	private static int randomTile(Random random, int terrain){
+		switch(terrain){
+		case 0:
+			return 1;
+		case 1:
+			return random.nextInt(5)==0 ? -1 : 1;
+		default:
+			return random.nextInt(8)==0 ? -1 : 1 + random.nextInt(5);
+		}
+	}
+
+}
@@ -0,0 +1,178 @@
+package com.clearlyspam23.checks;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import com.clearlyspam23.hexlogic.HexGrid;
+import com.clearlyspam23.hexlogic.HexLocation;
+import com.clearlyspam23.hexlogic.HexMatchVisitor;
+import com.clearlyspam23.hexlogic.HexPattern;
+import com.clearlyspam23.hexlogic.HexPatternMatcher;
+import com.clearlyspam23.hexlogic.TileKey;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * checks HexPatternMatcher against matching every variant of every pattern at every tile with HexGrid.get, over random grids and patterns, as tiles change.
+ * findMatches is compared against the full list of matches, and findMatchesTouching and matchesAt against the matches that cover, or start at, a random tile.
+ * only a few keys are used, so that there are plenty of matches to compare.
+ * 
+ * run with: java -cp target/benchmarks.jar com.clearlyspam23.checks.HexPatternMatcherCheck [seed]
+ * exits with status 1 if any mismatch is found
+ * 
+ * @author clearlyspam23
+ *
+ */
+public class HexPatternMatcherCheck {
+	
+	private static final TileKey<Integer> KEY = new TileKey<Integer>(){
+		
+		public int getKey(Integer tile){
+			return tile;
+		}
+		
+	};
+	
+	public static void main(String[] args){
+		long seed = args.length > 0 ? Long.parseLong(args[0]) : 1;
+		Random random = new Random(seed);
+		int failures = 0;
+		int checks = 0;
+		long matches = 0;
+		for(int trial = 0; trial < 100; trial++){
+			int width = 1 + random.nextInt(25);
+			int height = 1 + random.nextInt(25);
+			int size = width*height;
+			int keys = 1 + random.nextInt(3);
+			HexGrid<Integer> grid = new HexGrid<Integer>(width, height);
+			for(int i = 0; i < size; i++)
+				grid.setAtIndex(i, random.nextInt(keys));
+			HexPatternMatcher<Integer> matcher = new HexPatternMatcher<Integer>(grid, KEY);
+			int patterns = 1 + random.nextInt(4);
+			for(int p = 0; p < patterns; p++){
+				HexPattern pattern = new HexPattern();
+				int hexes = 1 + random.nextInt(6);
+				for(int i = 0; i < hexes; i++)
+					pattern.add(random.nextInt(5)-2, random.nextInt(5)-2, random.nextInt(keys));
+				matcher.addPattern(pattern, random.nextInt(4)!=0, random.nextInt(3)!=0);
+			}
+			for(int step = 0; step < 10; step++){
+				checks++;
+				Set<Match> expected = bruteForce(grid, matcher);
+				matches+=expected.size();
+				MatchSet found = new MatchSet();
+				int count = matcher.findMatches(found);
+				boolean ok = found.matches.equals(expected)&&count==found.matches.size()&&!found.repeated;
+				int tile = random.nextInt(size);
+				HexLocation tileLocation = grid.convert(tile, new HexLocation());
+				Set<Match> touching = new HashSet<Match>();
+				for(Match m : expected){
+					ok &= matcher.matchesAt(m.index, m.pattern, m.variant);
+					HexPattern variant = HexPatternMatcher.getVariant(matcher.getPattern(m.pattern), m.variant);
+					HexLocation origin = grid.convert(m.index, new HexLocation());
+					for(int i = 0; i < variant.getSize(); i++)
+						if(origin.x()+variant.getX(i)==tileLocation.x()&&origin.y()+variant.getY(i)==tileLocation.y())
+							touching.add(m);
+				}
+				MatchSet foundTouching = new MatchSet();
+				matcher.findMatchesTouching(tile, foundTouching);
+				ok &= foundTouching.matches.equals(touching)&&!foundTouching.repeated;
+				if(!ok){
+					failures++;
+					System.out.println("mismatch in trial " + trial + " (" + width + "x" + height + ") at step " + step);
+				}
+				for(int i = 0; i < 3; i++){
+					int index = random.nextInt(size);
+					grid.setAtIndex(index, random.nextInt(keys));
+					matcher.tileChanged(index);
+				}
+			}
+		}
+		System.out.println(checks + " checks of " + matches + " matches, " + failures + " failures");
+		if(failures>0)
+			System.exit(1);
+	}
+	
+	private static Set<Match> bruteForce(HexGrid<Integer> grid, HexPatternMatcher<Integer> matcher){
+		Set<Match> ans = new HashSet<Match>();
+		HexLocation origin = new HexLocation();
+		HexLocation hex = new HexLocation();
+		for(int p = 0; p < matcher.getPatternCount(); p++){
+			for(int v : matcher.getVariants(p)){
+				HexPattern variant = HexPatternMatcher.getVariant(matcher.getPattern(p), v);
+				for(int index = 0; index < grid.getSize(); index++){
+					grid.convert(index, origin);
+					boolean ok = true;
+					for(int i = 0; i < variant.getSize()&&ok; i++){
+						hex.set(origin.x()+variant.getX(i), origin.y()+variant.getY(i));
+						ok = grid.isValidLocation(hex)&&grid.get(hex).intValue()==variant.getKey(i);
+					}
+					if(ok)
+						ans.add(new Match(p, v, index));
+				}
+			}
+		}
+		return ans;
+	}
+	
+	private static class MatchSet implements HexMatchVisitor {
+		
+		private final Set<Match> matches = new HashSet<Match>();
+		private boolean repeated;
+		
+		public boolean visit(int pattern, int variant, int index){
+			repeated |= !matches.add(new Match(pattern, variant, index));
+			return true;
+		}
+		
+	}
+	
+	private static class Match {
+		
+		private final int pattern;
+		private final int variant;
+		private final int index;
+		
+		public Match(int pattern, int variant, int index){
+			this.pattern = pattern;
+			this.variant = variant;
+			this.index = index;
+		}
+		
+		public boolean equals(Object o){
+			if(!(o instanceof Match))
+				return false;
+			Match m = (Match)o;
+			return pattern==m.pattern&&variant==m.variant&&index==m.index;
+		}
+		
+		public int hashCode(){
+			return (pattern*31 + variant)*31 + index;
+		}
+		
+	}
+
+}
@@ -0,0 +1,156 @@
+package com.clearlyspam23.checks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import com.clearlyspam23.hexlogic.HexDirection;
+import com.clearlyspam23.hexlogic.HexEdgeMask;
+import com.clearlyspam23.hexlogic.HexGrid;
+import com.clearlyspam23.hexlogic.HexRegions;
+import com.clearlyspam23.hexlogic.TileKey;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * checks HexRegions against a plain flood fill, over random grids with random tile and edge changes.
+ * after every few changes, the region count, every region's size and tiles, and random same region queries are compared with labels from scratch.
+ * 
+ * run with: java -cp target/benchmarks.jar com.clearlyspam23.checks.HexRegionsCheck [seed]
+ * exits with status 1 if any mismatch is found
+ * 
+ * @author clearlyspam23
+ *
+ */
+public class HexRegionsCheck {
+	
+	private static final TileKey<Integer> KEY = new TileKey<Integer>(){
+		
+		public int getKey(Integer tile){
+			return tile;
+		}
+		
+	};
+	
+	public static void main(String[] args){
+		long seed = args.length > 0 ? Long.parseLong(args[0]) : 1;
+		Random random = new Random(seed);
+		int failures = 0;
+		int checks = 0;
+		for(int trial = 0; trial < 100; trial++){
+			int width = 1 + random.nextInt(32);
+			int height = 1 + random.nextInt(32);
+			int size = width*height;
+			int keys = 1 + random.nextInt(3);
+			HexGrid<Integer> grid = new HexGrid<Integer>(width, height);
+			for(int i = 0; i < size; i++)
+				grid.setAtIndex(i, random.nextInt(keys+1)-1);
+			boolean masked = random.nextBoolean();
+			HexEdgeMask edges = masked ? new HexEdgeMask(width, height) : null;
+			if(masked)
+				for(int i = 0; i < size/4; i++)
+					edges.setOpen(random.nextInt(size), HexDirection.get(random.nextInt(6)), false);
+			HexRegions<Integer> regions = new HexRegions<Integer>(grid, KEY, edges);
+			int[] tiles = new int[size];
+			for(int step = 0; step < 300; step++){
+				if(masked&&random.nextInt(4)==0){
+					int index = random.nextInt(size);
+					HexDirection direction = HexDirection.get(random.nextInt(6));
+					edges.setOpen(index, direction, random.nextBoolean());
+					regions.edgeChanged(index, direction);
+				}
+				else{
+					int index = random.nextInt(size);
+					grid.setAtIndex(index, random.nextInt(keys+1)-1);
+					regions.tileChanged(index);
+				}
+				if(step%10!=0)
+					continue;
+				checks++;
+				int[] labels = new int[size];
+				int count = flood(grid, edges, labels);
+				int[] sizes = new int[count];
+				for(int i = 0; i < size; i++)
+					if(labels[i]>=0)
+						sizes[labels[i]]++;
+				boolean ok = count==regions.getRegionCount();
+				for(int i = 0; i < size&&ok; i++){
+					if(labels[i]<0){
+						ok = regions.getRegion(i)==HexRegions.NO_REGION&&regions.getRegionSize(i)==0;
+						continue;
+					}
+					ok = regions.getRegionSize(i)==sizes[labels[i]];
+					int found = regions.getRegionTiles(i, tiles, 0);
+					ok &= found==sizes[labels[i]];
+					for(int j = 0; j < found&&ok; j++)
+						ok = labels[tiles[j]]==labels[i];
+				}
+				for(int i = 0; i < 50&&ok; i++){
+					int a = random.nextInt(size);
+					int b = random.nextInt(size);
+					ok = (labels[a]>=0&&labels[a]==labels[b])==regions.isSameRegion(a, b);
+				}
+				if(!ok){
+					failures++;
+					System.out.println("mismatch in trial " + trial + " (" + width + "x" + height + ") at step " + step);
+				}
+			}
+		}
+		System.out.println(checks + " checks, " + failures + " failures");
+		if(failures>0)
+			System.exit(1);
+	}
+	
+	//labels every region with a breadth first flood fill, returning the number of regions
+	private static int flood(HexGrid<Integer> grid, HexEdgeMask edges, int[] labels){
+		int size = grid.getSize();
+		Arrays.fill(labels, -1);
+		int[] queue = new int[size];
+		int count = 0;
+		for(int start = 0; start < size; start++){
+			if(labels[start]>=0||grid.getAtIndex(start)<0)
+				continue;
+			int head = 0;
+			int tail = 0;
+			queue[tail++] = start;
+			labels[start] = count;
+			while(head<tail){
+				int current = queue[head++];
+				for(int d = 0; d < 6; d++){
+					HexDirection direction = HexDirection.get(d);
+					int neighbor = grid.getNeighborIndex(current, direction);
+					if(neighbor<0||labels[neighbor]>=0||(edges!=null&&!edges.isOpen(current, d)))
+						continue;
+					if(grid.getAtIndex(neighbor).intValue()==grid.getAtIndex(current).intValue()){
+						labels[neighbor] = count;
+						queue[tail++] = neighbor;
+					}
+				}
+			}
+			count++;
+		}
+		return count;
+	}
+
+}
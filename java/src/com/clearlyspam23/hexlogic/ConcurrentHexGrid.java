@@ -0,0 +1,203 @@
+package com.clearlyspam23.hexlogic;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * A Hexagon grid that many threads can read from and write to at once.
+ * 
+ * Reads never lock and never allocate, and always see the latest completed write to a tile. Writes are serialized by a lock.
+ * 
+ * For reading several tiles that must be consistent with each other (for instance, a whole region used by an AI or sent over the network), 
+ * take a HexGridSnapshot with snapshot(). Taking a snapshot only copies one reference per row, 
+ * after which the first write to each row copies that row, so the snapshot is never affected by later writes.
+ * 
+ * Tiles are stored one row (of raw locations with the same y) per array, and raw locations and HexLocations map to tiles the same way as in HexGrid.
+ * 
+ * @author clearlyspam23
+ *
+ * @param <T> the Tile object to store in this grid
+ */
+public class ConcurrentHexGrid<T> {
+	
+	private static final VarHandle ROWS = MethodHandles.arrayElementVarHandle(Object[][].class);
+	private static final VarHandle TILES = MethodHandles.arrayElementVarHandle(Object[].class);
+	
+	private final int width;
+	private final int height;
+	private final Object[][] rows;
+	
+	//both only used while holding the lock
+	private final int[] rowVersions;
+	private int version;
+	
+	/**
+	 * constructs a new ConcurrentHexGrid with the given dimensions
+	 * @param width the horizontal area of the hexagon grid
+	 * @param height the vertical area of the hexagon grid
+	 */
+	public ConcurrentHexGrid(int width, int height){
+		this.width = width;
+		this.height = height;
+		rows = new Object[height][width];
+		rowVersions = new int[height];
+	}
+	
+	/**
+	 * constructs a new ConcurrentHexGrid holding a copy of the tiles of the given HexGrid
+	 * @param grid the HexGrid to copy
+	 */
+	public ConcurrentHexGrid(HexGrid<? extends T> grid){
+		this(grid.getWidth(), grid.getHeight());
+		for(int y = 0; y < height; y++)
+			for(int x = 0; x < width; x++)
+				rows[y][x] = grid.getAtRawLocation(x, y);
+	}
+	
+	/**
+	 * gets a tile at the given raw location
+	 * raw location means the actual array position of the tile, not it's location in hex space
+	 * @param x the horizontal array position
+	 * @param y the vertical array position
+	 * @return the tile at that location
+	 */
+	@SuppressWarnings("unchecked")
+	public T getAtRawLocation(int x, int y){
+		Object[] row = (Object[])ROWS.getAcquire(rows, y);
+		return (T)TILES.getAcquire(row, x);
+	}
+	
+	/**
+	 * gets a tile at the given raw location
+	 * raw location means the actual array position of the tile, not it's location in hex space
+	 * @param loc the location in array space
+	 * @return the tile at that location
+	 */
+	public T getAtRawLocation(Location loc){
+		return getAtRawLocation(loc.x(), loc.y());
+	}
+	
+	/**
+	 * gets the tile at the given HexLocation
+	 * @param location the HexLocation to get
+	 * @return the tile at the given HexLocation
+	 */
+	public T get(HexLocation location){
+		int y = location.y();
+		return getAtRawLocation(location.x() + y/2, y);
+	}
+	
+	/**
+	 * gets the tile at the HexLocation represented by the given coordinates
+	 * @param x
+	 * @param y
+	 * @return the tile at the given HexLocation
+	 */
+	public T get(int x, int y){
+		return getAtRawLocation(x + y/2, y);
+	}
+	
+	/**
+	 * sets the tile at the given raw location
+	 * raw location means the actual array position of the tile, not it's location in hex space
+	 * @param x the horizontal array position
+	 * @param y the vertical array position
+	 * @param t the tile to set that Location to
+	 */
+	public void setAtRawLocation(int x, int y, T t){
+		synchronized(rowVersions){
+			Object[] row = rows[y];
+			if(rowVersions[y]!=version){
+				//this row is shared with a snapshot, so take a private copy before changing it
+				row = row.clone();
+				rowVersions[y] = version;
+				ROWS.setRelease(rows, y, row);
+			}
+			TILES.setRelease(row, x, t);
+		}
+	}
+	
+	/**
+	 * sets the tile at the given raw location
+	 * raw location means the actual array position of the tile, not it's location in hex space
+	 * @param loc the location in array space
+	 * @param t the tile at that location
+	 */
+	public void setAtRawLocation(Location loc, T t){
+		setAtRawLocation(loc.x(), loc.y(), t);
+	}
+	
+	/**
+	 * sets the tile at the given HexLocation
+	 * @param location the HexLocation to set
+	 * @param t the tile to set that location to
+	 */
+	public void set(HexLocation location, T t){
+		int y = location.y();
+		setAtRawLocation(location.x() + y/2, y, t);
+	}
+	
+	/**
+	 * takes an immutable snapshot of every tile in this grid, as of the last completed write
+	 * this only copies one reference per row, and later writes copy the rows they change rather than touching the snapshot
+	 * @return a snapshot of this grid
+	 */
+	public HexGridSnapshot<T> snapshot(){
+		synchronized(rowVersions){
+			version++;
+			return new HexGridSnapshot<T>(rows.clone(), width);
+		}
+	}
+	
+	/**
+	 * checks if the given HexLocation is a valid location for this grid
+	 * @param loc the HexLocation to check
+	 * @return whether or not that location is valid
+	 */
+	public boolean isValidLocation(HexLocation loc){
+		int y = loc.y();
+		int x = loc.x() + y/2;
+		return x>=0&&x<width&&y>=0&&y<height;
+	}
+	
+	/**
+	 * gets the height of this grid
+	 * @return this grid's height
+	 */
+	public int getHeight(){
+		return height;
+	}
+	
+	/**
+	 * gets the width of this grid
+	 * @return this grid's width
+	 */
+	public int getWidth(){
+		return width;
+	}
+
+}
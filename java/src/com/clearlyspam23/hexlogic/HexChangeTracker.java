@@ -0,0 +1,295 @@
+package com.clearlyspam23.hexlogic;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * Records which tiles of a HexGrid have changed, so that only the changes need to be sent to clients and replicas, rather than the whole grid.
+ * 
+ * Once attached with HexGrid.setChangeTracker, every tile set in the grid is recorded in two ways:
+ * a dirty set, holding every tile changed since the last call to clearDirty(), 
+ * and a ring buffer log of the last few changes, each change counting as one version, so a delta can be made from any recent version.
+ * The dirty set is a BitSet for checking a tile, along with a list of the changed indices, which is what gets walked (and cleared) 
+ * so that nothing has to scan every word of a grid sized BitSet.
+ * 
+ * Deltas are written into a ByteBuffer as a header followed by the changed tiles in index order, 
+ * each tile being the gap from the last tile's index (as a variable length int) and then its record, encoded with a HexTileCodec.
+ * The size of a delta, and the time taken to make it, depends only on the number of changed tiles (sorted into index order, so k log k for k tiles), 
+ * not the size of the grid.
+ * On the receiving side, applyDelta writes the changes into another grid of the same size.
+ * 
+ * A tracker is not thread safe.
+ * 
+ * @author clearlyspam23
+ *
+ */
+public class HexChangeTracker {
+	
+	/**
+	 * the size of the header at the start of every delta, in bytes
+	 */
+	public static final int DELTA_HEADER_SIZE = 28;
+	
+	private final int size;
+	private final BitSet dirty;
+	private final BitSet scratch;
+	private int[] dirtyList;
+	private int dirtyCount;
+	private int[] scratchList;
+	private final int[] log;
+	private final int logMask;
+	private long version;
+	private long cleanVersion;
+	
+	/**
+	 * constructs a new HexChangeTracker for grids with the given number of tiles
+	 * @param size the number of tiles in the grid to track, as given by HexGrid.getSize()
+	 * @param logCapacity the number of changes to remember for making deltas from older versions, rounded up to a power of 2
+	 */
+	public HexChangeTracker(int size, int logCapacity){
+		this.size = size;
+		dirty = new BitSet(size);
+		scratch = new BitSet(size);
+		dirtyList = new int[16];
+		scratchList = new int[16];
+		int capacity = 1;
+		while(capacity<logCapacity)
+			capacity<<=1;
+		log = new int[capacity];
+		logMask = capacity-1;
+	}
+	
+	/**
+	 * records that the tile with the given index has changed
+	 * this is called by HexGrid whenever a tile is set, but can also be called to record a change to the tile object itself
+	 * @param index the index of the changed tile
+	 */
+	public void markChanged(int index){
+		if(!dirty.get(index)){
+			dirty.set(index);
+			if(dirtyCount==dirtyList.length)
+				dirtyList = Arrays.copyOf(dirtyList, dirtyCount*2);
+			dirtyList[dirtyCount++] = index;
+		}
+		log[(int)(version & logMask)] = index;
+		version++;
+	}
+	
+	/**
+	 * gets the current version, which is the total number of changes recorded so far
+	 * @return the current version
+	 */
+	public long getVersion(){
+		return version;
+	}
+	
+	/**
+	 * checks if the tile with the given index has changed since the last call to clearDirty()
+	 * @param index the index of the tile
+	 * @return whether or not the tile has changed
+	 */
+	public boolean isDirty(int index){
+		return dirty.get(index);
+	}
+	
+	/**
+	 * @return the number of tiles changed since the last call to clearDirty()
+	 */
+	public int getDirtyCount(){
+		return dirtyCount;
+	}
+	
+	/**
+	 * gets the tiles changed since the last call to clearDirty(). This is the set this tracker works in, so it should not be changed, use markChanged instead
+	 * @return a BitSet holding the index of every changed tile
+	 */
+	public BitSet getDirty(){
+		return dirty;
+	}
+	
+	/**
+	 * gets the index of every tile changed since the last call to clearDirty(), in no particular order
+	 * if there are more changed tiles than room left in the buffer, only some of them are stored
+	 * @param out the buffer to store the indices in
+	 * @param offset the position in out to store the first index
+	 * @return the number of indices stored
+	 */
+	public int getDirty(int[] out, int offset){
+		int count = Math.min(dirtyCount, out.length-offset);
+		System.arraycopy(dirtyList, 0, out, offset, count);
+		return count;
+	}
+	
+	/**
+	 * forgets every change made so far, as far as the dirty tiles are concerned. The log of changes is kept
+	 */
+	public void clearDirty(){
+		for(int i = 0; i < dirtyCount; i++)
+			dirty.clear(dirtyList[i]);
+		dirtyCount = 0;
+		cleanVersion = version;
+	}
+	
+	/**
+	 * checks if there is enough of the log left to make a delta from the given version
+	 * @param fromVersion the version the receiving side is at
+	 * @return whether or not a delta can be made from that version
+	 */
+	public boolean canWriteDelta(long fromVersion){
+		return fromVersion<=version&&(fromVersion==cleanVersion||version-fromVersion<=log.length);
+	}
+	
+	/**
+	 * writes a delta of every tile changed since the last call to clearDirty(), and then clears the dirty tiles
+	 * @param grid the grid being tracked
+	 * @param codec the codec to write each tile with
+	 * @param out the buffer to write the delta to, starting at its position, which must have room for getDeltaSize(getDirtyCount(), codec) bytes
+	 * @return the number of tiles written
+	 */
+	public <T> int writeDirty(HexGrid<T> grid, HexTileCodec<? super T> codec, ByteBuffer out){
+		int ans = writeDelta(grid, codec, cleanVersion, dirtyList, dirtyCount, out);
+		clearDirty();
+		return ans;
+	}
+	
+	/**
+	 * writes a delta of every tile changed since the given version
+	 * @param grid the grid being tracked
+	 * @param codec the codec to write each tile with
+	 * @param fromVersion the version the receiving side is at, for which canWriteDelta must be true
+	 * @param out the buffer to write the delta to, starting at its position
+	 * @return the number of tiles written
+	 */
+	public <T> int writeDelta(HexGrid<T> grid, HexTileCodec<? super T> codec, long fromVersion, ByteBuffer out){
+		if(!canWriteDelta(fromVersion))
+			throw new IllegalArgumentException("cannot make a delta from version " + fromVersion + ", the current version is " + version 
+					+ " and only the last " + log.length + " changes are logged");
+		if(fromVersion==cleanVersion)
+			return writeDelta(grid, codec, fromVersion, dirtyList, dirtyCount, out);
+		//gather each logged tile once, using the scratch BitSet, and then clear only the bits that were set
+		int count = 0;
+		for(long v = fromVersion; v < version; v++){
+			int index = log[(int)(v & logMask)];
+			if(!scratch.get(index)){
+				scratch.set(index);
+				if(count==scratchList.length)
+					scratchList = Arrays.copyOf(scratchList, count*2);
+				scratchList[count++] = index;
+			}
+		}
+		for(int i = 0; i < count; i++)
+			scratch.clear(scratchList[i]);
+		return writeDelta(grid, codec, fromVersion, scratchList, count, out);
+	}
+	
+	private <T> int writeDelta(HexGrid<T> grid, HexTileCodec<? super T> codec, long fromVersion, int[] changed, int count, ByteBuffer out){
+		int recordSize = codec.getRecordSize();
+		int width = grid.getWidth();
+		//the gaps between indices are written as unsigned, so the tiles must go in index order
+		Arrays.sort(changed, 0, count);
+		out.putLong(fromVersion).putLong(version).putInt(codec.getCodecId()).putInt(recordSize).putInt(count);
+		int last = 0;
+		for(int j = 0; j < count; j++){
+			int i = changed[j];
+			putVarInt(out, i-last);
+			last = i;
+			int offset = out.position();
+			if(out.remaining()<recordSize)
+				throw new BufferOverflowException();
+			codec.write(grid.getAtRawLocation(i%width, i/width), out, offset);
+			out.position(offset+recordSize);
+		}
+		return count;
+	}
+	
+	/**
+	 * applies a delta written by writeDirty or writeDelta to the given grid, which must be the same size as the grid the delta was made from
+	 * @param grid the grid to apply the changes to
+	 * @param codec the codec to read each tile with, which must have the same id as the codec the delta was written with
+	 * @param in the buffer to read the delta from, starting at its position
+	 * @return the version the grid is at after applying the delta
+	 */
+	public static <T> long applyDelta(HexGrid<T> grid, HexTileCodec<T> codec, ByteBuffer in){
+		in.getLong();
+		long toVersion = in.getLong();
+		int codecId = in.getInt();
+		int recordSize = in.getInt();
+		if(codecId!=codec.getCodecId()||recordSize!=codec.getRecordSize())
+			throw new IllegalArgumentException("delta was written with codec " + codecId + " (" + recordSize + " byte records), not codec " 
+					+ codec.getCodecId() + " (" + codec.getRecordSize() + " byte records)");
+		int count = in.getInt();
+		int width = grid.getWidth();
+		int index = 0;
+		for(int i = 0; i < count; i++){
+			index+=getVarInt(in);
+			int offset = in.position();
+			grid.setAtRawLocation(index%width, index/width, codec.read(in, offset));
+			in.position(offset+recordSize);
+		}
+		return toVersion;
+	}
+	
+	/**
+	 * gets the most bytes a delta of the given number of tiles can take up
+	 * @param count the number of changed tiles
+	 * @param codec the codec the tiles are written with
+	 * @return the most bytes the delta can take up
+	 */
+	public static int getDeltaSize(int count, HexTileCodec<?> codec){
+		return DELTA_HEADER_SIZE + count*(5+codec.getRecordSize());
+	}
+	
+	/**
+	 * @return the number of tiles in the grids this tracker is for
+	 */
+	public int getSize(){
+		return size;
+	}
+	
+	private static void putVarInt(ByteBuffer out, int value){
+		while((value & ~0x7F)!=0){
+			out.put((byte)((value & 0x7F) | 0x80));
+			value>>>=7;
+		}
+		out.put((byte)value);
+	}
+	
+	private static int getVarInt(ByteBuffer in){
+		int ans = 0;
+		int shift = 0;
+		byte b;
+		do{
+			b = in.get();
+			ans |= (b & 0x7F)<<shift;
+			shift+=7;
+		}while(b<0);
+		return ans;
+	}
+
+}
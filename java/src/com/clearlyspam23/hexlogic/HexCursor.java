@@ -0,0 +1,366 @@
+package com.clearlyspam23.hexlogic;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * A reusable cursor for walking over groups of hexagons around a location: its neighbors, a ring, a spiral, a filled hexagon, or the overlap of two filled hexagons.
+ * 
+ * Rather than building a list, the cursor is moved from one hexagon to the next, so walking over any number of hexagons creates no objects.
+ * intended usage is something like:
+ * 
+ * HexCursor cursor = new HexCursor();
+ * cursor.range(center, 3);
+ * while(cursor.next())
+ *     doSomething(cursor.x(), cursor.y());
+ * 
+ * A cursor can also be clipped to the bounds of a grid, in which case it skips every hexagon outside of the grid, and index() gives the index of the current tile.
+ * Filled hexagons are clipped a whole row at a time, so the hexagons outside of the grid are never even visited.
+ * 
+ * @author clearlyspam23
+ *
+ */
+public class HexCursor {
+	
+	private static final int NONE = 0;
+	private static final int RING = 1;
+	private static final int RANGE = 2;
+	
+	private int mode;
+	private int x;
+	private int y;
+	
+	private boolean clipped;
+	private int width;
+	private int height;
+	
+	//state for rings and spirals
+	private int centerX;
+	private int centerY;
+	private boolean centerPending;
+	private int ringRadius;
+	private int maxRadius;
+	private int side;
+	private int step;
+	private int walkX;
+	private int walkY;
+	
+	//state for filled hexagons, which are walked one row (constant y) at a time
+	private int minX;
+	private int maxX;
+	private int maxY;
+	private int minZ;
+	private int maxZ;
+	private int rowY;
+	private int rowX;
+	private int rowEnd;
+	
+	/**
+	 * clips this cursor to the given grid, so it only visits hexagons inside of it
+	 * @param grid the grid to clip to
+	 * @return this HexCursor for chaining
+	 */
+	public HexCursor clip(HexGrid<?> grid){
+		return clip(grid.getWidth(), grid.getHeight());
+	}
+	
+	/**
+	 * clips this cursor to the given grid, so it only visits hexagons inside of it
+	 * @param grid the grid to clip to
+	 * @return this HexCursor for chaining
+	 */
+	public HexCursor clip(PrimitiveHexGrid grid){
+		return clip(grid.getWidth(), grid.getHeight());
+	}
+	
+	/**
+	 * clips this cursor to a grid of the given dimensions, so it only visits hexagons inside of it
+	 * @param width the width of the grid
+	 * @param height the height of the grid
+	 * @return this HexCursor for chaining
+	 */
+	public HexCursor clip(int width, int height){
+		clipped = true;
+		this.width = width;
+		this.height = height;
+		return this;
+	}
+	
+	/**
+	 * stops clipping this cursor, so it visits every hexagon
+	 * @return this HexCursor for chaining
+	 */
+	public HexCursor unclip(){
+		clipped = false;
+		return this;
+	}
+	
+	/**
+	 * starts walking over the 6 neighbors of the given location
+	 * @param center the location to walk around
+	 * @return this HexCursor for chaining
+	 */
+	public HexCursor neighbors(HexLocation center){
+		return ring(center.x(), center.y(), 1);
+	}
+	
+	/**
+	 * starts walking over the 6 neighbors of the given coordinates
+	 * @param x the horizontal component of the center
+	 * @param y the diagonal component of the center
+	 * @return this HexCursor for chaining
+	 */
+	public HexCursor neighbors(int x, int y){
+		return ring(x, y, 1);
+	}
+	
+	/**
+	 * starts walking over every hexagon exactly radius away from the given location
+	 * @param center the center of the ring
+	 * @param radius the radius of the ring, a radius of 0 being just the center
+	 * @return this HexCursor for chaining
+	 */
+	public HexCursor ring(HexLocation center, int radius){
+		return ring(center.x(), center.y(), radius);
+	}
+	
+	/**
+	 * starts walking over every hexagon exactly radius away from the given coordinates
+	 * @param x the horizontal component of the center
+	 * @param y the diagonal component of the center
+	 * @param radius the radius of the ring, a radius of 0 being just the center
+	 * @return this HexCursor for chaining
+	 */
+	public HexCursor ring(int x, int y, int radius){
+		startRings(x, y, radius==0, Math.max(radius, 1), radius);
+		return this;
+	}
+	
+	/**
+	 * starts walking over every hexagon within radius of the given location, starting at the center and working outwards one ring at a time
+	 * @param center the center of the spiral
+	 * @param radius the radius of the last ring
+	 * @return this HexCursor for chaining
+	 */
+	public HexCursor spiral(HexLocation center, int radius){
+		return spiral(center.x(), center.y(), radius);
+	}
+	
+	/**
+	 * starts walking over every hexagon within radius of the given coordinates, starting at the center and working outwards one ring at a time
+	 * @param x the horizontal component of the center
+	 * @param y the diagonal component of the center
+	 * @param radius the radius of the last ring
+	 * @return this HexCursor for chaining
+	 */
+	public HexCursor spiral(int x, int y, int radius){
+		startRings(x, y, true, 1, radius);
+		return this;
+	}
+	
+	/**
+	 * starts walking over every hexagon within radius of the given location, one row at a time
+	 * this visits the same hexagons as spiral, but in an order which is faster to walk and to clip
+	 * @param center the center of the area
+	 * @param radius the furthest distance from the center to visit
+	 * @return this HexCursor for chaining
+	 */
+	public HexCursor range(HexLocation center, int radius){
+		return range(center.x(), center.y(), radius);
+	}
+	
+	/**
+	 * starts walking over every hexagon within radius of the given coordinates, one row at a time
+	 * @param x the horizontal component of the center
+	 * @param y the diagonal component of the center
+	 * @param radius the furthest distance from the center to visit
+	 * @return this HexCursor for chaining
+	 */
+	public HexCursor range(int x, int y, int radius){
+		int z = -x-y;
+		startRange(x-radius, x+radius, y-radius, y+radius, z-radius, z+radius);
+		return this;
+	}
+	
+	/**
+	 * starts walking over every hexagon within radius1 of the first location, and within radius2 of the second location, one row at a time
+	 * @param center1 the center of the first area
+	 * @param radius1 the furthest distance from the first center to visit
+	 * @param center2 the center of the second area
+	 * @param radius2 the furthest distance from the second center to visit
+	 * @return this HexCursor for chaining
+	 */
+	public HexCursor intersection(HexLocation center1, int radius1, HexLocation center2, int radius2){
+		int x1 = center1.x();
+		int y1 = center1.y();
+		int z1 = -x1-y1;
+		int x2 = center2.x();
+		int y2 = center2.y();
+		int z2 = -x2-y2;
+		startRange(Math.max(x1-radius1, x2-radius2), Math.min(x1+radius1, x2+radius2), 
+				Math.max(y1-radius1, y2-radius2), Math.min(y1+radius1, y2+radius2), 
+				Math.max(z1-radius1, z2-radius2), Math.min(z1+radius1, z2+radius2));
+		return this;
+	}
+	
+	/**
+	 * moves this cursor to the next hexagon
+	 * @return true if the cursor moved to another hexagon, or false if there are no more
+	 */
+	public boolean next(){
+		switch(mode){
+		case RING:
+			return nextRing();
+		case RANGE:
+			return nextRange();
+		}
+		return false;
+	}
+	
+	/**
+	 * @return the horizontal component of the current hexagon
+	 */
+	public int x(){
+		return x;
+	}
+	
+	/**
+	 * @return the diagonal component of the current hexagon
+	 */
+	public int y(){
+		return y;
+	}
+	
+	/**
+	 * gets the current hexagon's coordinates, packed into a long (see PackedHex)
+	 * @return the packed coordinates of the current hexagon
+	 */
+	public long packed(){
+		return PackedHex.pack(x, y);
+	}
+	
+	/**
+	 * gets the index of the current hexagon in the grid this cursor is clipped to (see HexGrid.getIndex)
+	 * @return the index of the current hexagon
+	 */
+	public int index(){
+		return y*width + x + y/2;
+	}
+	
+	/**
+	 * stores the current hexagon in the given HexLocation
+	 * @param locOut the object to store the result in
+	 * @return locOut, for chaining
+	 */
+	public HexLocation get(HexLocation locOut){
+		return locOut.set(x, y);
+	}
+	
+	private void startRings(int x, int y, boolean includeCenter, int firstRadius, int lastRadius){
+		mode = RING;
+		centerX = x;
+		centerY = y;
+		centerPending = includeCenter;
+		maxRadius = lastRadius;
+		startRing(firstRadius);
+	}
+	
+	private void startRing(int radius){
+		//rings start at the northwest corner, then walk east, southeast, and so on around the ring
+		HexDirection corner = HexDirection.northwest;
+		ringRadius = radius;
+		side = 0;
+		step = 0;
+		walkX = centerX + corner.offsetX()*radius;
+		walkY = centerY + corner.offsetY()*radius;
+	}
+	
+	private boolean nextRing(){
+		while(true){
+			if(centerPending){
+				centerPending = false;
+				x = centerX;
+				y = centerY;
+			}
+			else{
+				if(ringRadius>maxRadius){
+					mode = NONE;
+					return false;
+				}
+				x = walkX;
+				y = walkY;
+				HexDirection dir = HexDirection.get(side);
+				walkX+=dir.offsetX();
+				walkY+=dir.offsetY();
+				if(++step==ringRadius){
+					step = 0;
+					if(++side==6)
+						startRing(ringRadius+1);
+				}
+			}
+			if(!clipped)
+				return true;
+			if(y>=0&&y<height){
+				int rawX = x + y/2;
+				if(rawX>=0&&rawX<width)
+					return true;
+			}
+		}
+	}
+	
+	private void startRange(int minX, int maxX, int minY, int maxY, int minZ, int maxZ){
+		mode = RANGE;
+		if(clipped){
+			minY = Math.max(minY, 0);
+			maxY = Math.min(maxY, height-1);
+		}
+		this.minX = minX;
+		this.maxX = maxX;
+		this.maxY = maxY;
+		this.minZ = minZ;
+		this.maxZ = maxZ;
+		rowY = minY-1;
+		rowX = 1;
+		rowEnd = 0;
+	}
+	
+	private boolean nextRange(){
+		while(rowX>rowEnd){
+			if(++rowY>maxY){
+				mode = NONE;
+				return false;
+			}
+			rowX = Math.max(minX, -rowY-maxZ);
+			rowEnd = Math.min(maxX, -rowY-minZ);
+			if(clipped){
+				rowX = Math.max(rowX, -(rowY/2));
+				rowEnd = Math.min(rowEnd, width-1-rowY/2);
+			}
+		}
+		x = rowX++;
+		y = rowY;
+		return true;
+	}
+
+}
@@ -37,10 +37,22 @@ public enum HexDirection {
 	
 	private final HexLocation offset;
 	
+	private static final HexDirection[] directions = values();
+	
 	private HexDirection(int x, int y){
 		offset = new HexLocation(x, y);
 	}
 	
+	/**
+	 * gets the HexDirection with the given index, in the same order as values()
+	 * unlike values(), this does not create a new array on every call, so it is safe to use in tight loops
+	 * @param index the index of the direction, between 0 and 5
+	 * @return the HexDirection with that index
+	 */
+	public static HexDirection get(int index){
+		return directions[index];
+	}
+	
 	/**
 	 * gets the horizontal component of this HexDirection
 	 * The coordinate system is an axial one, with east representing positive x, and west representing negative x
@@ -0,0 +1,281 @@
+package com.clearlyspam23.hexlogic;
+
+import java.util.Arrays;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * Records which edges between the tiles of a hexagon grid can be crossed, for things such as walls, rivers and doors that sit between tiles rather than in them.
+ * 
+ * Every tile gets a byte holding a 6 bit mask, bit d being set if the edge in the direction HexDirection.get(d) can be crossed. 
+ * Each edge is shared by two tiles, so changing an edge through setOpen always changes the bit on both sides, keeping the two in agreement.
+ * Edges leading out of the grid are always closed, so a set bit also means the neighbor is in the grid, 
+ * and searches can step to it with getNeighborOffset without checking the bounds at all.
+ * 
+ * Tiles are stored one row after another, the same as the other PrimitiveHexGrids, so the index of a tile here is its index in a HexGrid of the same size.
+ * 
+ * intended usage is something like:
+ * 
+ * HexEdgeMask edges = new HexEdgeMask(grid.getWidth(), grid.getHeight());
+ * edges.setOpen(grid.getIndex(wallLocation), HexDirection.east, false);
+ * HexPathfinder<Tile> pathfinder = new HexPathfinder<Tile>(grid, cost, 1, edges);
+ * 
+ * @author clearlyspam23
+ *
+ */
+public class HexEdgeMask extends PrimitiveHexGrid {
+	
+	/**
+	 * the mask of a tile with every edge open
+	 */
+	public static final int ALL = 0x3F;
+	
+	/**
+	 * the mask of a tile with every edge closed
+	 */
+	public static final int NONE = 0;
+	
+	private final byte[] masks;
+	private final int[] offsets;
+	
+	/**
+	 * constructs a new HexEdgeMask with the given dimensions, with every edge between two tiles of the grid open
+	 * @param width the horizontal area of the hexagon grid
+	 * @param height the vertical area of the hexagon grid
+	 */
+	public HexEdgeMask(int width, int height){
+		super(width, height);
+		masks = new byte[width*height];
+		offsets = getNeighborOffsets(width);
+		openAll();
+	}
+	
+	/**
+	 * constructs a new HexEdgeMask as a copy of the given mask
+	 * @param other the mask to copy
+	 */
+	public HexEdgeMask(HexEdgeMask other){
+		super(other.width, other.height);
+		masks = other.masks.clone();
+		offsets = other.offsets.clone();
+	}
+	
+	/**
+	 * gets the bit of the given direction in a mask
+	 * @param direction the direction of the edge
+	 * @return the bit of that edge
+	 */
+	public static int getBit(HexDirection direction){
+		return 1<<direction.ordinal();
+	}
+	
+	/**
+	 * gets the mask of the tile with the given index
+	 * @param index the index of the tile
+	 * @return the mask of that tile, with bit d set if the edge in direction HexDirection.get(d) is open
+	 */
+	public int getMask(int index){
+		return masks[index];
+	}
+	
+	/**
+	 * gets the mask of the tile at the given HexLocation
+	 * @param location the location of the tile
+	 * @return the mask of that tile, or NONE if that location is not in this grid
+	 */
+	public int getMask(HexLocation location){
+		int index = getIndex(location);
+		if(index<0)
+			return NONE;
+		return masks[index];
+	}
+	
+	/**
+	 * checks whether the edge in the given direction from the tile with the given index can be crossed
+	 * @param index the index of the tile
+	 * @param direction the index of the direction, as in HexDirection.get
+	 * @return whether or not that edge is open
+	 */
+	public boolean isOpen(int index, int direction){
+		return (masks[index] & (1<<direction))!=0;
+	}
+	
+	/**
+	 * checks whether the edge in the given direction from the tile with the given index can be crossed
+	 * @param index the index of the tile
+	 * @param direction the direction of the edge
+	 * @return whether or not that edge is open
+	 */
+	public boolean isOpen(int index, HexDirection direction){
+		return isOpen(index, direction.ordinal());
+	}
+	
+	/**
+	 * checks whether the edge in the given direction from the tile at the given HexLocation can be crossed
+	 * @param location the location of the tile
+	 * @param direction the direction of the edge
+	 * @return whether or not that edge is open, which is always false if the location is not in this grid
+	 */
+	public boolean isOpen(HexLocation location, HexDirection direction){
+		int index = getIndex(location);
+		return index>=0&&isOpen(index, direction.ordinal());
+	}
+	
+	/**
+	 * opens or closes the edge in the given direction from the tile with the given index, on both sides of the edge.
+	 * edges leading out of the grid are always closed, so trying to open one does nothing
+	 * @param index the index of the tile
+	 * @param direction the direction of the edge
+	 * @param open whether the edge should be open or closed
+	 * @return the index of the tile on the other side of the edge, or -1 if the edge leads out of the grid
+	 */
+	public int setOpen(int index, HexDirection direction, boolean open){
+		int neighbor = getNeighborIndex(index, direction);
+		if(neighbor<0)
+			return -1;
+		int bit = 1<<direction.ordinal();
+		int opposite = 1<<((direction.ordinal()+3)%6);
+		if(open){
+			masks[index] |= bit;
+			masks[neighbor] |= opposite;
+		}
+		else{
+			masks[index] &= ~bit;
+			masks[neighbor] &= ~opposite;
+		}
+		return neighbor;
+	}
+	
+	/**
+	 * opens or closes the edge in the given direction from the tile at the given HexLocation, on both sides of the edge
+	 * @param location the location of the tile
+	 * @param direction the direction of the edge
+	 * @param open whether the edge should be open or closed
+	 * @return the index of the tile on the other side of the edge, or -1 if the edge leads out of the grid or the location is not in this grid
+	 */
+	public int setOpen(HexLocation location, HexDirection direction, boolean open){
+		int index = getIndex(location);
+		if(index<0)
+			return -1;
+		return setOpen(index, direction, open);
+	}
+	
+	/**
+	 * opens or closes every edge of the tile with the given index, such as when a wall fills the whole tile
+	 * @param index the index of the tile
+	 * @param open whether the edges should be open or closed
+	 */
+	public void setTileOpen(int index, boolean open){
+		for(int d = 0; d < 6; d++)
+			setOpen(index, HexDirection.get(d), open);
+	}
+	
+	/**
+	 * opens every edge between two tiles of the grid
+	 */
+	public void openAll(){
+		for(int y = 0; y < height; y++)
+			for(int x = 0; x < width; x++)
+				masks[y*width + x] = (byte) getBoundsMask(x, y, width, height);
+	}
+	
+	/**
+	 * closes every edge, so no tile can be moved out of
+	 */
+	public void closeAll(){
+		Arrays.fill(masks, (byte) NONE);
+	}
+	
+	/**
+	 * gets the amount to add to the index of a tile in the given row to get the index of its neighbor in the given direction.
+	 * this does no checking of the bounds, so it should only be used for edges that are open, which always lead to a tile in the grid
+	 * @param y the vertical array position of the tile
+	 * @param direction the index of the direction, as in HexDirection.get
+	 * @return the offset from the tile's index to its neighbor's index
+	 */
+	public int getNeighborOffset(int y, int direction){
+		return offsets[(y & 1)*6 + direction];
+	}
+	
+	/**
+	 * gets the mask of a tile with every edge open that leads to another tile of the grid, worked out from the bounds alone.
+	 * searches given no HexEdgeMask use this in place of reading one, so they can step to neighbors the same way without allocating a mask of their own
+	 * @param x the horizontal array position of the tile
+	 * @param y the vertical array position of the tile
+	 * @param width the width of the grid
+	 * @param height the height of the grid
+	 * @return the mask of that tile
+	 */
+	public static int getBoundsMask(int x, int y, int width, int height){
+		int mask = ALL;
+		//moving up or down a row from an even row moves the raw position left, and from an odd row moves it right
+		boolean odd = (y & 1)!=0;
+		if(x==0)
+			mask &= odd ? ~(1<<3) : ~((1<<2) | (1<<3) | (1<<4));
+		if(x==width-1)
+			mask &= odd ? ~((1<<0) | (1<<1) | (1<<5)) : ~(1<<0);
+		if(y==0)
+			mask &= ~((1<<1) | (1<<2));
+		if(y==height-1)
+			mask &= ~((1<<4) | (1<<5));
+		return mask;
+	}
+	
+	/**
+	 * gets the amounts to add to the index of a tile to get the index of each of its neighbors, in a grid of the given width.
+	 * moving up or down a row shifts the raw position by an extra tile on every other row, so there is one set of offsets for even rows, and one for odd
+	 * @param width the width of the grid
+	 * @return the offsets, with the offset in direction d from a tile in row y at (y & 1)*6 + d
+	 */
+	public static int[] getNeighborOffsets(int width){
+		int[] ans = new int[12];
+		for(int parity = 0; parity < 2; parity++){
+			for(int d = 0; d < 6; d++){
+				HexDirection dir = HexDirection.get(d);
+				int shift = dir.offsetY()>0 ? parity : dir.offsetY()<0 ? parity-1 : 0;
+				ans[parity*6+d] = dir.offsetY()*width + dir.offsetX() + shift;
+			}
+		}
+		return ans;
+	}
+	
+	/**
+	 * gets the array backing this mask. Changes made to the array are changes made to this mask, 
+	 * so any change must be made on both sides of the edge, and must never open an edge leading out of the grid
+	 * @return the backing array, with the mask of tile (x, y) in array space at index y*getWidth() + x
+	 */
+	public byte[] getData(){
+		return masks;
+	}
+	
+	/**
+	 * creates and returns a copy of this mask
+	 * @return a copy of this mask
+	 */
+	public HexEdgeMask copy(){
+		return new HexEdgeMask(this);
+	}
+
+}
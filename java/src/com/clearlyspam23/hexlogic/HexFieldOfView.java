@@ -0,0 +1,137 @@
+package com.clearlyspam23.hexlogic;
+
+import java.util.BitSet;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * Calculates which tiles of a HexGrid can be seen from a given tile, using symmetric shadowcasting.
+ * 
+ * The area around the viewer is split into 6 triangular sextants, one between each pair of neighboring HexDirections.
+ * Each sextant is scanned outwards one row at a time (a row being all the hexagons of that sextant at the same distance), 
+ * and opaque tiles cast shadows, tracked as a range of slopes, onto the rows behind them.
+ * Each tile is looked at about once, so a calculation is O(r^2) for a radius of r, and no objects are created.
+ * 
+ * A floor tile is only visible if its center is in view, which makes the result symmetric: if A can see B then B can see A.
+ * Opaque tiles are visible if any part of them is in view, so walls don't have holes in them.
+ * Tiles outside of the grid are treated as opaque.
+ * 
+ * A HexFieldOfView holds no state between calculations, so one can be shared between threads, as long as each uses its own BitSet.
+ * 
+ * @author clearlyspam23
+ *
+ * @param <T> the Tile object stored in the grid
+ */
+public class HexFieldOfView<T> {
+	
+	private final HexGrid<T> grid;
+	private final TileFilter<? super T> opaque;
+	
+	/**
+	 * constructs a new HexFieldOfView over the given grid
+	 * @param grid the grid to calculate visibility over
+	 * @param opaque accepts the tiles that block sight
+	 */
+	public HexFieldOfView(HexGrid<T> grid, TileFilter<? super T> opaque){
+		this.grid = grid;
+		this.opaque = opaque;
+	}
+	
+	/**
+	 * calculates all the tiles visible from the given HexLocation
+	 * @param origin the location of the viewer
+	 * @param radius the furthest distance that can be seen
+	 * @param out the BitSet to store the result in, which is cleared, and then has the bit of each visible tile's index set
+	 */
+	public void compute(HexLocation origin, int radius, BitSet out){
+		out.clear();
+		int index = grid.getIndex(origin);
+		if(index>=0)
+			scanAll(origin.x(), origin.y(), index, radius, out);
+	}
+	
+	/**
+	 * calculates all the tiles visible from the tile with the given index
+	 * @param origin the index of the viewer's tile
+	 * @param radius the furthest distance that can be seen
+	 * @param out the BitSet to store the result in, which is cleared, and then has the bit of each visible tile's index set
+	 */
+	public void compute(int origin, int radius, BitSet out){
+		out.clear();
+		int width = grid.getWidth();
+		int y = origin/width;
+		scanAll(origin%width - y/2, y, origin, radius, out);
+	}
+	
+	private void scanAll(int x, int y, int index, int radius, BitSet out){
+		out.set(index);
+		for(int s = 0; s < 6; s++)
+			scan(x, y, HexDirection.get(s), HexDirection.get((s+1)%6), 1, radius, 0, 1, 1, 1, out);
+	}
+	
+	/**
+	 * scans one sextant, starting at the given row. The tile at column col of row depth is found at origin + depth*first + col*(second-first).
+	 * slopes are kept as fractions, a column's center being at slope col/depth and its edges at slopes (2*col-1)/(2*depth) and (2*col+1)/(2*depth)
+	 */
+	private void scan(int originX, int originY, HexDirection first, HexDirection second, int depth, int radius, 
+			int startNum, int startDen, int endNum, int endDen, BitSet out){
+		int width = grid.getWidth();
+		int height = grid.getHeight();
+		int stepX = second.offsetX() - first.offsetX();
+		int stepY = second.offsetY() - first.offsetY();
+		for(; depth <= radius; depth++){
+			//the columns this row covers, rounding ties towards the middle of the range
+			int minCol = Math.max(0, Math.floorDiv(2*depth*startNum + startDen, 2*startDen));
+			int maxCol = Math.min(depth, -Math.floorDiv(endDen - 2*depth*endNum, 2*endDen));
+			int prev = -1;
+			for(int col = minCol; col <= maxCol; col++){
+				int y = originY + depth*first.offsetY() + col*stepY;
+				int rawX = originX + depth*first.offsetX() + col*stepX + y/2;
+				boolean valid = y>=0&&y<height&&rawX>=0&&rawX<width;
+				boolean wall = !valid||opaque.accept(grid.getAtRawLocation(rawX, y));
+				if(valid&&(wall||(col*startDen>=depth*startNum&&col*endDen<=depth*endNum)))
+					out.set(y*width + rawX);
+				if(prev==1&&!wall){
+					startNum = 2*col-1;
+					startDen = 2*depth;
+				}
+				else if(prev==0&&wall){
+					scan(originX, originY, first, second, depth+1, radius, startNum, startDen, 2*col-1, 2*depth, out);
+				}
+				prev = wall ? 1 : 0;
+			}
+			if(prev!=0)
+				return;
+		}
+	}
+	
+	/**
+	 * @return the grid this calculates visibility over
+	 */
+	public HexGrid<T> getGrid(){
+		return grid;
+	}
+
+}
@@ -0,0 +1,484 @@
+package com.clearlyspam23.hexlogic;
+
+import java.util.BitSet;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * A flow field over a HexGrid, for when many units are all heading to the same goal (or the nearest of several goals).
+ * 
+ * Rather than finding a path for every unit, the field runs a single Dijkstra's search outwards from every goal at once, 
+ * giving every tile its distance to the nearest goal, and the direction of the next step along the cheapest path to it.
+ * Steering a unit is then just a lookup of the direction at the tile it is on.
+ * 
+ * Distances are measured the same way as HexPathfinder measures paths: the sum of the costs of every tile moved into, including the goal, 
+ * but not including the tile the unit starts on. Tiles with a negative cost are impassable, and are never given a distance.
+ * 
+ * When tiles change, rather than recomputing the whole field, pass each changed tile to tileChanged (the dirty tiles of a HexChangeTracker work well for this),
+ * and then call update(). Tiles that got cheaper only spread their improvement outwards, 
+ * and tiles that got more expensive only reset the tiles whose cheapest path went through them, which are then filled in again from the tiles around them.
+ * Goals can be added and removed the same way.
+ * 
+ * Walls and other things sitting on the edges between tiles can be given as a HexEdgeMask, which is only ever crossed through its open edges.
+ * After opening or closing an edge, pass it to edgeChanged, and it is brought up to date by the next update() like any other change.
+ * 
+ * intended usage is something like:
+ * 
+ * HexFlowField<Tile> field = new HexFlowField<Tile>(grid, cost);
+ * field.addGoal(grid.getIndex(goalLocation));
+ * field.compute();
+ * ...
+ * HexDirection step = field.getDirection(unit.getLocation());
+ * 
+ * A flow field is not thread safe, but once computed, any number of threads may read from it as long as nothing is changing it.
+ * 
+ * @author clearlyspam23
+ *
+ * @param <T> the Tile object stored in the grid
+ */
+public class HexFlowField<T> {
+	
+	/**
+	 * the distance given to tiles that cannot reach any goal
+	 */
+	public static final int UNREACHABLE = Integer.MAX_VALUE;
+	
+	/**
+	 * the direction given to goals, and to tiles that cannot reach any goal
+	 */
+	public static final byte NO_DIRECTION = -1;
+	
+	private final HexGrid<T> grid;
+	private final TileCost<? super T> cost;
+	private final HexEdgeMask edges;
+	private final int[] offsets;
+	private final int width;
+	private final int height;
+	private final IntHexGrid distances;
+	private final ByteHexGrid directions;
+	private final int[] costs;
+	private final BitSet goals;
+	private final BitSet activeGoals;
+	private final IntMinHeap open;
+	private final int[] pending;
+	private final BitSet pendingSet;
+	private int pendingCount;
+	private final int[] reset;
+	private final BitSet resetSet;
+	private final BitSet cutSet;
+	private boolean computed;
+	
+	/**
+	 * constructs a new, empty, HexFlowField over the given grid
+	 * @param grid the grid to compute the field over
+	 * @param cost the cost of moving into each tile
+	 */
+	public HexFlowField(HexGrid<T> grid, TileCost<? super T> cost){
+		this(grid, cost, null);
+	}
+	
+	/**
+	 * constructs a new, empty, HexFlowField over the given grid, which can only cross the edges between tiles that are open in the given mask
+	 * after opening or closing an edge, pass it to edgeChanged so the next update() takes it into account
+	 * @param grid the grid to compute the field over
+	 * @param cost the cost of moving into each tile
+	 * @param edges the edges that can be crossed, with the same dimensions as the grid, or null if every edge between two tiles can be crossed
+	 */
+	public HexFlowField(HexGrid<T> grid, TileCost<? super T> cost, HexEdgeMask edges){
+		if(edges!=null&&(edges.getWidth()!=grid.getWidth()||edges.getHeight()!=grid.getHeight()))
+			throw new IllegalArgumentException("cannot use a " + edges.getWidth() + "x" + edges.getHeight() + " edge mask with a " 
+					+ grid.getWidth() + "x" + grid.getHeight() + " grid");
+		this.grid = grid;
+		this.cost = cost;
+		this.edges = edges;
+		offsets = HexEdgeMask.getNeighborOffsets(grid.getWidth());
+		width = grid.getWidth();
+		height = grid.getHeight();
+		int size = grid.getSize();
+		distances = new IntHexGrid(width, height);
+		directions = new ByteHexGrid(width, height);
+		distances.fill(UNREACHABLE);
+		directions.fill(NO_DIRECTION);
+		costs = new int[size];
+		goals = new BitSet(size);
+		activeGoals = new BitSet(size);
+		open = new IntMinHeap(size);
+		pending = new int[size];
+		pendingSet = new BitSet(size);
+		reset = new int[size];
+		resetSet = new BitSet(size);
+		cutSet = new BitSet(size);
+	}
+	
+	/**
+	 * makes the tile with the given index a goal
+	 * goals on impassable tiles are kept, but have no effect until the tile becomes passable
+	 * @param index the index of the tile
+	 */
+	public void addGoal(int index){
+		if(!goals.get(index)){
+			goals.set(index);
+			tileChanged(index);
+		}
+	}
+	
+	/**
+	 * makes the tile at the given HexLocation a goal
+	 * @param location the location of the tile
+	 */
+	public void addGoal(HexLocation location){
+		addGoal(grid.getIndex(location));
+	}
+	
+	/**
+	 * stops the tile with the given index from being a goal
+	 * @param index the index of the tile
+	 */
+	public void removeGoal(int index){
+		if(goals.get(index)){
+			goals.clear(index);
+			tileChanged(index);
+		}
+	}
+	
+	/**
+	 * stops the tile at the given HexLocation from being a goal
+	 * @param location the location of the tile
+	 */
+	public void removeGoal(HexLocation location){
+		removeGoal(grid.getIndex(location));
+	}
+	
+	/**
+	 * removes every goal from this field
+	 */
+	public void clearGoals(){
+		for(int i = goals.nextSetBit(0); i >= 0; i = goals.nextSetBit(i+1))
+			tileChanged(i);
+		goals.clear();
+	}
+	
+	/**
+	 * checks whether the tile with the given index is a goal
+	 * @param index the index of the tile
+	 * @return whether or not that tile is a goal
+	 */
+	public boolean isGoal(int index){
+		return goals.get(index);
+	}
+	
+	/**
+	 * records that the tile with the given index has changed, so that its cost will be checked again on the next update()
+	 * @param index the index of the tile
+	 */
+	public void tileChanged(int index){
+		if(!pendingSet.get(index)){
+			pendingSet.set(index);
+			pending[pendingCount++] = index;
+		}
+	}
+	
+	/**
+	 * records that the tile at the given HexLocation has changed
+	 * @param location the location of the tile
+	 */
+	public void tileChanged(HexLocation location){
+		tileChanged(grid.getIndex(location));
+	}
+	
+	/**
+	 * records that the edge in the given direction from the tile with the given index has been opened or closed, 
+	 * so that the tiles on both sides of it will be checked again on the next update()
+	 * @param index the index of the tile
+	 * @param direction the direction of the edge
+	 */
+	public void edgeChanged(int index, HexDirection direction){
+		int neighbor = grid.getNeighborIndex(index, direction);
+		if(neighbor<0)
+			return;
+		int d = direction.ordinal();
+		//a closed edge cuts off any tile whose cheapest path stepped across it
+		if(edges!=null&&!edges.isOpen(index, d)){
+			byte[] dir = directions.getData();
+			if(dir[index]==d)
+				cutSet.set(index);
+			if(dir[neighbor]==(d+3)%6)
+				cutSet.set(neighbor);
+		}
+		tileChanged(index);
+		tileChanged(neighbor);
+	}
+	
+	/**
+	 * recomputes this whole field from scratch, reading the cost of every tile again (and every edge)
+	 * @return the number of tiles that can reach a goal
+	 */
+	public int compute(){
+		int size = costs.length;
+		for(int i = 0; i < size; i++)
+			costs[i] = cost.getCost(grid.getAtIndex(i));
+		distances.fill(UNREACHABLE);
+		directions.fill(NO_DIRECTION);
+		activeGoals.clear();
+		activeGoals.or(goals);
+		clearPending();
+		open.clear();
+		int[] dist = distances.getData();
+		for(int i = goals.nextSetBit(0); i >= 0; i = goals.nextSetBit(i+1)){
+			if(costs[i]>=0){
+				dist[i] = 0;
+				open.push(i, 0);
+			}
+		}
+		computed = true;
+		return spread();
+	}
+	
+	/**
+	 * brings this field up to date with every tile passed to tileChanged since the last update, and every goal added or removed.
+	 * only the tiles whose distance could have changed are searched again, so small changes are much cheaper than compute().
+	 * if this field has never been computed, this just calls compute()
+	 * @return the number of tiles that were searched again
+	 */
+	public int update(){
+		if(!computed)
+			return compute();
+		int[] dist = distances.getData();
+		byte[] dir = directions.getData();
+		int resetCount = 0;
+		//first, find every tile that got worse. Those tiles, and every tile whose cheapest path went through them, lose their distance
+		for(int i = 0; i < pendingCount; i++){
+			int index = pending[i];
+			int oldCost = costs[index];
+			int newCost = cost.getCost(grid.getAtIndex(index));
+			costs[index] = newCost;
+			boolean wasGoal = activeGoals.get(index);
+			boolean isGoal = goals.get(index);
+			activeGoals.set(index, isGoal);
+			boolean worse = (wasGoal&&!isGoal) || (newCost<0 ? oldCost>=0 : oldCost>=0&&newCost>oldCost) || cutSet.get(index);
+			if(worse&&!resetSet.get(index)){
+				resetSet.set(index);
+				reset[resetCount++] = index;
+			}
+		}
+		//the tree of cheapest paths is walked using the directions themselves: a tile's children are the neighbors that step towards it
+		for(int i = 0; i < resetCount; i++){
+			int index = reset[i];
+			dist[index] = UNREACHABLE;
+			dir[index] = NO_DIRECTION;
+			int y = index/width;
+			int x = index%width - y/2;
+			for(int d = 0; d < 6; d++){
+				int neighbor = neighbor(x, y, d);
+				if(neighbor>=0&&dir[neighbor]==(d+3)%6&&!resetSet.get(neighbor)){
+					resetSet.set(neighbor);
+					reset[resetCount++] = neighbor;
+				}
+			}
+		}
+		open.clear();
+		//then, fill the reset tiles back in from the tiles around them that still have their distance
+		for(int i = 0; i < resetCount; i++)
+			reseed(reset[i]);
+		//and finally, let every tile that got better spread its improvement to its neighbors
+		for(int i = 0; i < pendingCount; i++){
+			int index = pending[i];
+			if(resetSet.get(index)||costs[index]<0)
+				continue;
+			if(activeGoals.get(index)){
+				dist[index] = 0;
+				dir[index] = NO_DIRECTION;
+			}
+			else if(dist[index]==UNREACHABLE){
+				reseed(index);
+			}
+			if(dist[index]!=UNREACHABLE)
+				open.push(index, dist[index]);
+		}
+		for(int i = 0; i < resetCount; i++)
+			resetSet.clear(reset[i]);
+		clearPending();
+		return spread();
+	}
+	
+	/**
+	 * gets the distance from the tile with the given index to the nearest goal
+	 * @param index the index of the tile
+	 * @return the cost of the cheapest path from that tile to a goal, or UNREACHABLE
+	 */
+	public int getDistance(int index){
+		return distances.getAtIndex(index);
+	}
+	
+	/**
+	 * gets the distance from the tile at the given HexLocation to the nearest goal
+	 * @param location the location of the tile
+	 * @return the cost of the cheapest path from that tile to a goal, or UNREACHABLE if there is no path or the location is not in the grid
+	 */
+	public int getDistance(HexLocation location){
+		int index = grid.getIndex(location);
+		if(index<0)
+			return UNREACHABLE;
+		return distances.getAtIndex(index);
+	}
+	
+	/**
+	 * gets the direction to step in from the tile with the given index, to follow the cheapest path to the nearest goal
+	 * @param index the index of the tile
+	 * @return the direction to step in, or null if that tile is a goal or cannot reach any goal
+	 */
+	public HexDirection getDirection(int index){
+		byte d = directions.getAtIndex(index);
+		if(d<0)
+			return null;
+		return HexDirection.get(d);
+	}
+	
+	/**
+	 * gets the direction to step in from the tile at the given HexLocation, to follow the cheapest path to the nearest goal
+	 * @param location the location of the tile
+	 * @return the direction to step in, or null if that tile is a goal, cannot reach any goal, or is not in the grid
+	 */
+	public HexDirection getDirection(HexLocation location){
+		int index = grid.getIndex(location);
+		if(index<0)
+			return null;
+		return getDirection(index);
+	}
+	
+	/**
+	 * gets the distances of every tile, with UNREACHABLE for tiles that cannot reach any goal
+	 * this is the grid this field works in, so it should not be changed
+	 * @return the distance grid
+	 */
+	public IntHexGrid getDistances(){
+		return distances;
+	}
+	
+	/**
+	 * gets the directions of every tile, as the index of the HexDirection to step in (see HexDirection.get), or NO_DIRECTION
+	 * this is the grid this field works in, so it should not be changed
+	 * @return the direction grid
+	 */
+	public ByteHexGrid getDirections(){
+		return directions;
+	}
+	
+	/**
+	 * @return the grid this field is computed over
+	 */
+	public HexGrid<T> getGrid(){
+		return grid;
+	}
+	
+	//gives the tile the best distance it can get from one step into its neighbors, ignoring neighbors that have been reset
+	private void reseed(int index){
+		int[] dist = distances.getData();
+		byte[] dir = directions.getData();
+		if(costs[index]<0)
+			return;
+		if(activeGoals.get(index)){
+			dist[index] = 0;
+			open.push(index, 0);
+			return;
+		}
+		int y = index/width;
+		int mask = getMask(index, y);
+		int best = UNREACHABLE;
+		int bestDir = NO_DIRECTION;
+		for(int d = 0; d < 6; d++){
+			if((mask & (1<<d))==0)
+				continue;
+			int neighbor = index + offsets[(y & 1)*6 + d];
+			if(resetSet.get(neighbor)||dist[neighbor]==UNREACHABLE||costs[neighbor]<0)
+				continue;
+			int c = dist[neighbor] + costs[neighbor];
+			if(c<best){
+				best = c;
+				bestDir = d;
+			}
+		}
+		if(best!=UNREACHABLE){
+			dist[index] = best;
+			dir[index] = (byte) bestDir;
+			open.push(index, best);
+		}
+	}
+	
+	//Dijkstra's search outwards from everything in the open heap, only ever lowering distances
+	private int spread(){
+		int[] dist = distances.getData();
+		byte[] dir = directions.getData();
+		int searched = 0;
+		while(!open.isEmpty()){
+			int current = open.pop();
+			searched++;
+			int currentCost = costs[current];
+			if(currentCost<0)
+				continue;
+			int stepCost = dist[current] + currentCost;
+			int y = current/width;
+			int mask = getMask(current, y);
+			for(int d = 0; d < 6; d++){
+				if((mask & (1<<d))==0)
+					continue;
+				int neighbor = current + offsets[(y & 1)*6 + d];
+				if(costs[neighbor]<0||stepCost>=dist[neighbor])
+					continue;
+				dist[neighbor] = stepCost;
+				dir[neighbor] = (byte) ((d+3)%6);
+				open.push(neighbor, stepCost);
+			}
+		}
+		return searched;
+	}
+	
+	//the tile's mask in the edge mask, or worked out from the bounds if there is no edge mask, so that no mask has to be allocated
+	private int getMask(int index, int y){
+		if(edges==null)
+			return HexEdgeMask.getBoundsMask(index - y*width, y, width, height);
+		return edges.getData()[index];
+	}
+	
+	private int neighbor(int x, int y, int d){
+		HexDirection direction = HexDirection.get(d);
+		int neighborY = y + direction.offsetY();
+		if(neighborY<0||neighborY>=height)
+			return -1;
+		int neighborX = x + direction.offsetX() + neighborY/2;
+		if(neighborX<0||neighborX>=width)
+			return -1;
+		return neighborY*width + neighborX;
+	}
+	
+	private void clearPending(){
+		for(int i = 0; i < pendingCount; i++){
+			pendingSet.clear(pending[i]);
+			cutSet.clear(pending[i]);
+		}
+		pendingCount = 0;
+	}
+
+}
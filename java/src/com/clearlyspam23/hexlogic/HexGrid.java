@@ -34,6 +34,7 @@ THE SOFTWARE.
 public class HexGrid<T> {
 	
 	private Object[][] tiles;
+	private HexChangeTracker tracker;
 	
 	/**
 	 * constructs a new HexGrid with the given dimensions
@@ -77,6 +78,8 @@ public class HexGrid<T> {
 	 */
 	public void setAtRawLocation(int x, int y, T t){
 		tiles[x][y] = t;
+		if(tracker!=null)
+			tracker.markChanged(y*tiles.length + x);
 	}
 	
 	/**
@@ -140,30 +143,27 @@ public class HexGrid<T> {
 		return loc.x()>=0&&loc.x()<tiles.length&&loc.y()>=0&&loc.y()<tiles[0].length;
 	}
 	
-	private Location cachedLocation = new Location();
-	
 	/**
 	 * checks if the given raw location is a valid location for this HexGrid
 	 * @param loc the HexLocation to check
 	 * @return whether or not that location is valid
 	 */
 	public boolean isValidLocation(HexLocation loc){
-		convert(loc, cachedLocation);
-		return isValidLocation(cachedLocation);
+		return getIndex(loc)>=0;
 	}
 	
 	/**
 	 * gets the tile at the given HexLocation
+	 * this does not write to any shared state, so any number of threads may read from the same HexGrid at once, as long as none are writing to it.
+	 * for reading while other threads write, see ConcurrentHexGrid
 	 * @param location the HexLocation to get
 	 * @return the tile at the given HexLocation
 	 */
 	public T get(HexLocation location){
-		convert(location, cachedLocation);
-		return getAtRawLocation(cachedLocation.x(), cachedLocation.y());
+		int y = location.y();
+		return getAtRawLocation(location.x() + y/2, y);
 	}
 	
-	private HexLocation cachedHexLocation = new HexLocation();
-	
 	/**
 	 * gets the tile at the HexLocation represented by the given coordinates
 	 * @param x
@@ -171,10 +171,126 @@ public class HexGrid<T> {
 	 * @return the tile at the given HexLocation
 	 */
 	public T get(int x, int y){
-		convert(cachedHexLocation.set(x, y), cachedLocation);
-		return getAtRawLocation(cachedLocation.x(), cachedLocation.y());
+		return getAtRawLocation(x + y/2, y);
 	}
 
+	/**
+	 * gets the index of the given raw location
+	 * an index is a single number that identifies a raw location, counting across each row of the grid in turn.
+	 * This is generally used by algorithms that need to keep track of data for each tile, so that they can use flat arrays
+	 * @param x the 1st array's index
+	 * @param y the 2nd array's index
+	 * @return the index of that raw location
+	 */
+	public int getIndex(int x, int y){
+		return y*tiles.length + x;
+	}
+	
+	/**
+	 * gets the index of the given HexLocation
+	 * @param location the HexLocation to get the index of
+	 * @return the index of that location, or -1 if that location is not in this HexGrid
+	 */
+	public int getIndex(HexLocation location){
+		int y = location.y();
+		int x = location.x() + y/2;
+		if(x<0||x>=tiles.length||y<0||y>=tiles[0].length)
+			return -1;
+		return y*tiles.length + x;
+	}
+	
+	/**
+	 * gets the 1st array's index of the raw location with the given index
+	 * @param index the index of a raw location
+	 * @return the 1st array's index of that location
+	 */
+	public int getRawX(int index){
+		return index%tiles.length;
+	}
+	
+	/**
+	 * gets the 2nd array's index of the raw location with the given index
+	 * @param index the index of a raw location
+	 * @return the 2nd array's index of that location
+	 */
+	public int getRawY(int index){
+		return index/tiles.length;
+	}
+	
+	/**
+	 * takes an index, and converts it to global hexagon space
+	 * @param index the index of a raw location
+	 * @param locOut the object to store the result in
+	 * @return locOut, for chaining
+	 */
+	public HexLocation convert(int index, HexLocation locOut){
+		int y = index/tiles.length;
+		locOut.set(index%tiles.length - y/2, y);
+		return locOut;
+	}
+	
+	/**
+	 * gets the tile at the given index
+	 * @param index the index of the tile
+	 * @return the tile at that index
+	 */
+	public T getAtIndex(int index){
+		return getAtRawLocation(index%tiles.length, index/tiles.length);
+	}
+	
+	/**
+	 * sets the tile at the given index
+	 * @param index the index of the tile
+	 * @param t the tile to set that index to
+	 */
+	public void setAtIndex(int index, T t){
+		setAtRawLocation(index%tiles.length, index/tiles.length, t);
+	}
+	
+	/**
+	 * gets the index of the tile 1 unit in the given direction from the tile with the given index
+	 * @param index the index to start from
+	 * @param direction the direction to move in
+	 * @return the index of the neighboring tile, or -1 if that neighbor is not in this HexGrid
+	 */
+	public int getNeighborIndex(int index, HexDirection direction){
+		int width = tiles.length;
+		int y = index/width;
+		int neighborY = y + direction.offsetY();
+		if(neighborY<0||neighborY>=tiles[0].length)
+			return -1;
+		int neighborX = index%width - y/2 + direction.offsetX() + neighborY/2;
+		if(neighborX<0||neighborX>=width)
+			return -1;
+		return neighborY*width + neighborX;
+	}
+	
+	/**
+	 * gets the number of tiles in this HexGrid, which is also 1 more than the largest index
+	 * @return the number of tiles in this HexGrid
+	 */
+	public int getSize(){
+		return tiles.length*tiles[0].length;
+	}
+	
+	/**
+	 * starts recording every tile set in this HexGrid with the given tracker, or stops recording if the tracker is null
+	 * @param tracker the tracker to record changes with, created for a grid of this size, or null
+	 */
+	public void setChangeTracker(HexChangeTracker tracker){
+		if(tracker!=null&&tracker.getSize()!=getSize())
+			throw new IllegalArgumentException("tracker is for a grid of " + tracker.getSize() + " tiles, not " + getSize());
+		this.tracker = tracker;
+	}
+	
+	/**
+	 * gets the tracker recording changes to this HexGrid
+	 * @return the change tracker, or null if changes are not being recorded
+	 */
+	public HexChangeTracker getChangeTracker(){
+		return tracker;
+	}
+	
 	/**
 	 * gets the height of this HexGrid
 	 * @return this HexGrid's height
@@ -0,0 +1,192 @@
+package com.clearlyspam23.hexlogic;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * Saves and loads HexGrids in a compact binary format.
+ * 
+ * The format is a 24 byte header, followed by one fixed size record per tile (see HexTileCodec), one row after another (tile (x, y) in array space is record y*width + x).
+ * The header holds, as big endian ints: the magic number 0x48455847 ("HEXG"), the format version, the width, the height, the codec id, and the record size.
+ * 
+ * Saving streams the grid out through a small buffer, so a grid of any size can be saved without building it up in memory first.
+ * Loading maps the file into memory with FileChannel.map, and map() returns a MappedHexGrid which decodes tiles only when they are asked for, 
+ * so even huge maps open almost instantly, and the operating system pages in only the parts that are used.
+ * 
+ * @author clearlyspam23
+ *
+ */
+public final class HexGridIO {
+	
+	/**
+	 * the magic number every saved grid starts with, "HEXG" in ASCII
+	 */
+	public static final int MAGIC = 0x48455847;
+	
+	/**
+	 * the version of the format written by this class
+	 */
+	public static final int VERSION = 1;
+	
+	/**
+	 * the size of the header, in bytes
+	 */
+	public static final int HEADER_SIZE = 24;
+	
+	private static final int BUFFER_SIZE = 1<<16;
+	
+	private HexGridIO(){
+		
+	}
+	
+	/**
+	 * saves the given grid to a file, replacing anything already in the file
+	 * @param grid the grid to save
+	 * @param codec the codec to write each tile with
+	 * @param file the file to save to
+	 * @throws IOException if the file could not be written
+	 */
+	public static <T> void save(HexGrid<T> grid, HexTileCodec<? super T> codec, File file) throws IOException{
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try{
+			raf.setLength(0);
+			save(grid, codec, raf.getChannel());
+		}
+		finally{
+			raf.close();
+		}
+	}
+	
+	/**
+	 * saves the given grid to a channel, streaming it out through a small buffer
+	 * @param grid the grid to save
+	 * @param codec the codec to write each tile with
+	 * @param channel the channel to write to, which is left open
+	 * @throws IOException if the channel could not be written to
+	 */
+	public static <T> void save(HexGrid<T> grid, HexTileCodec<? super T> codec, WritableByteChannel channel) throws IOException{
+		int width = grid.getWidth();
+		int height = grid.getHeight();
+		int recordSize = codec.getRecordSize();
+		ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(BUFFER_SIZE, Math.max(HEADER_SIZE, recordSize)));
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height).putInt(codec.getCodecId()).putInt(recordSize);
+		for(int y = 0; y < height; y++){
+			for(int x = 0; x < width; x++){
+				if(buffer.remaining()<recordSize)
+					flush(buffer, channel);
+				int offset = buffer.position();
+				codec.write(grid.getAtRawLocation(x, y), buffer, offset);
+				buffer.position(offset+recordSize);
+			}
+		}
+		flush(buffer, channel);
+	}
+	
+	/**
+	 * loads a grid saved with save(), decoding every tile into a new HexGrid
+	 * @param file the file to load
+	 * @param codec the codec to read each tile with, which must have the same id as the codec the grid was saved with
+	 * @return the loaded grid
+	 * @throws IOException if the file could not be read, or is not a grid saved with this codec
+	 */
+	public static <T> HexGrid<T> load(File file, HexTileCodec<T> codec) throws IOException{
+		MappedHexGrid<T> mapped = map(file, codec, false);
+		int width = mapped.getWidth();
+		int height = mapped.getHeight();
+		HexGrid<T> ans = new HexGrid<T>(width, height);
+		for(int y = 0; y < height; y++)
+			for(int x = 0; x < width; x++)
+				ans.setAtRawLocation(x, y, mapped.getAtRawLocation(x, y));
+		return ans;
+	}
+	
+	/**
+	 * maps a grid saved with save() into memory, without decoding any tiles
+	 * @param file the file to map
+	 * @param codec the codec to read each tile with, which must have the same id as the codec the grid was saved with
+	 * @param writable whether or not tiles can be set, in which case changes are written straight through to the file
+	 * @return a MappedHexGrid reading from the file
+	 * @throws IOException if the file could not be read, or is not a grid saved with this codec
+	 */
+	public static <T> MappedHexGrid<T> map(File file, HexTileCodec<T> codec, boolean writable) throws IOException{
+		RandomAccessFile raf = new RandomAccessFile(file, writable ? "rw" : "r");
+		try{
+			FileChannel channel = raf.getChannel();
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while(header.hasRemaining())
+				if(channel.read(header, header.position())<0)
+					throw new IOException(file + " is too short to be a saved HexGrid");
+			header.flip();
+			if(header.getInt()!=MAGIC)
+				throw new IOException(file + " is not a saved HexGrid");
+			int version = header.getInt();
+			if(version!=VERSION)
+				throw new IOException(file + " was saved with unsupported format version " + version);
+			int width = header.getInt();
+			int height = header.getInt();
+			int codecId = header.getInt();
+			int recordSize = header.getInt();
+			if(codecId!=codec.getCodecId()||recordSize!=codec.getRecordSize())
+				throw new IOException(file + " was saved with codec " + codecId + " (" + recordSize + " byte records), not codec " 
+						+ codec.getCodecId() + " (" + codec.getRecordSize() + " byte records)");
+			if(width<0||height<0)
+				throw new IOException(file + " has a corrupt header, giving a " + width + "x" + height + " HexGrid");
+			long rowSize = (long)width*recordSize;
+			if(rowSize>0&&height>(Long.MAX_VALUE-HEADER_SIZE)/rowSize)
+				throw new IOException(file + " has a corrupt header, a " + width + "x" + height + " HexGrid of " + recordSize + " byte records is too big to store");
+			if(channel.size()<HEADER_SIZE + rowSize*height)
+				throw new IOException(file + " is too short for a " + width + "x" + height + " HexGrid");
+			//a single mapping can't be over 2GB, so huge grids are split into several mappings of whole rows
+			int rowsPerSegment = (int)Math.max(1, Math.min(height, Integer.MAX_VALUE/Math.max(1, rowSize)));
+			int segmentCount = height==0 ? 0 : (height+rowsPerSegment-1)/rowsPerSegment;
+			MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+			FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+			for(int i = 0; i < segmentCount; i++){
+				int rows = Math.min(rowsPerSegment, height-i*rowsPerSegment);
+				segments[i] = channel.map(mode, HEADER_SIZE + rowSize*i*rowsPerSegment, rowSize*rows);
+			}
+			return new MappedHexGrid<T>(width, height, codec, segments, rowsPerSegment);
+		}
+		finally{
+			//mappings stay valid after their channel is closed
+			raf.close();
+		}
+	}
+	
+	private static void flush(ByteBuffer buffer, WritableByteChannel channel) throws IOException{
+		buffer.flip();
+		while(buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+
+}
@@ -0,0 +1,128 @@
+package com.clearlyspam23.hexlogic;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * An immutable view of every tile of a ConcurrentHexGrid at the moment the snapshot was taken.
+ * 
+ * A snapshot never changes, so any number of threads can read from it at once, and reads of several tiles are always consistent with each other.
+ * Raw locations and HexLocations map to tiles the same way as in HexGrid.
+ * 
+ * @author clearlyspam23
+ *
+ * @param <T> the Tile object stored in the grid
+ */
+public class HexGridSnapshot<T> {
+	
+	private final Object[][] rows;
+	private final int width;
+	
+	HexGridSnapshot(Object[][] rows, int width){
+		this.rows = rows;
+		this.width = width;
+	}
+	
+	/**
+	 * gets a tile at the given raw location
+	 * raw location means the actual array position of the tile, not it's location in hex space
+	 * @param x the horizontal array position
+	 * @param y the vertical array position
+	 * @return the tile at that location
+	 */
+	@SuppressWarnings("unchecked")
+	public T getAtRawLocation(int x, int y){
+		return (T)rows[y][x];
+	}
+	
+	/**
+	 * gets a tile at the given raw location
+	 * raw location means the actual array position of the tile, not it's location in hex space
+	 * @param loc the location in array space
+	 * @return the tile at that location
+	 */
+	public T getAtRawLocation(Location loc){
+		return getAtRawLocation(loc.x(), loc.y());
+	}
+	
+	/**
+	 * gets the tile at the given HexLocation
+	 * @param location the HexLocation to get
+	 * @return the tile at the given HexLocation
+	 */
+	public T get(HexLocation location){
+		int y = location.y();
+		return getAtRawLocation(location.x() + y/2, y);
+	}
+	
+	/**
+	 * gets the tile at the HexLocation represented by the given coordinates
+	 * @param x
+	 * @param y
+	 * @return the tile at the given HexLocation
+	 */
+	public T get(int x, int y){
+		return getAtRawLocation(x + y/2, y);
+	}
+	
+	/**
+	 * copies every tile of this snapshot into a new HexGrid
+	 * @return a new HexGrid holding the same tiles as this snapshot
+	 */
+	public HexGrid<T> toHexGrid(){
+		HexGrid<T> ans = new HexGrid<T>(width, rows.length);
+		for(int y = 0; y < rows.length; y++)
+			for(int x = 0; x < width; x++)
+				ans.setAtRawLocation(x, y, getAtRawLocation(x, y));
+		return ans;
+	}
+	
+	/**
+	 * checks if the given HexLocation is a valid location for this snapshot
+	 * @param loc the HexLocation to check
+	 * @return whether or not that location is valid
+	 */
+	public boolean isValidLocation(HexLocation loc){
+		int y = loc.y();
+		int x = loc.x() + y/2;
+		return x>=0&&x<width&&y>=0&&y<rows.length;
+	}
+	
+	/**
+	 * gets the height of this snapshot
+	 * @return this snapshot's height
+	 */
+	public int getHeight(){
+		return rows.length;
+	}
+	
+	/**
+	 * gets the width of this snapshot
+	 * @return this snapshot's width
+	 */
+	public int getWidth(){
+		return width;
+	}
+
+}
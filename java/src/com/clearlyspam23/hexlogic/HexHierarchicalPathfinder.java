@@ -0,0 +1,717 @@
+package com.clearlyspam23.hexlogic;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * Finds paths across very large HexGrids, using hierarchical pathfinding (HPA*).
+ * 
+ * The grid is split into square clusters (in raw coordinates). Wherever a run of passable tiles crosses the border between two clusters, 
+ * the middle pair of tiles in that run becomes an entrance, and long runs also get the pair at each end, so that paths across open ground do not all have to bend through the middle of the border.
+ * The tiles of every entrance into a cluster become the nodes of that cluster.
+ * The cost between every pair of nodes in a cluster, staying inside the cluster, is found ahead of time, 
+ * so a long path only has to search between entrances rather than between tiles.
+ * 
+ * findPath gives the path as a list of waypoints: the start, the entrances passed through, and the goal. 
+ * When the start and goal are in the same or neighboring clusters, a path staying inside those clusters is also tried, and the cheaper one is kept.
+ * Each step between waypoints stays inside the one or two clusters holding its ends (or crosses straight over a border), 
+ * so it can be turned into tiles with refine() just before it is needed, rather than all at once.
+ * Paths found this way are not always the cheapest, but are generally close.
+ * 
+ * When tiles change, pass each changed tile to tileChanged, and then call update(), which only rebuilds the clusters around the changes.
+ * Until then, searches use the costs from before the change.
+ * 
+ * intended usage is something like:
+ * 
+ * HexHierarchicalPathfinder<Tile> pathfinder = new HexHierarchicalPathfinder<Tile>(grid, cost, 32);
+ * HexSearchContext context = pathfinder.createContext();
+ * if(pathfinder.findPath(context, start, goal)>=0){
+ *     int count = context.getPath(goal, waypoints);
+ *     ...
+ *     pathfinder.refine(context, waypoints[i], waypoints[i+1]);
+ *     length = context.getPath(waypoints[i+1], path);
+ * }
+ * 
+ * Searching uses working memory held by the pathfinder itself, so unlike HexPathfinder, a HexHierarchicalPathfinder is not thread safe.
+ * 
+ * @author clearlyspam23
+ *
+ * @param <T> the Tile object stored in the grid
+ */
+public class HexHierarchicalPathfinder<T> {
+	
+	private static final int[] EMPTY = new int[0];
+	//runs with at least this many crossings get an entrance at each end, as well as the one in the middle
+	private static final int LONG_RUN = 3;
+	
+	private final HexGrid<T> grid;
+	private final TileCost<? super T> cost;
+	private final int minCost;
+	private final int width;
+	private final int height;
+	private final int clusterSize;
+	private final int clustersWide;
+	private final int clustersHigh;
+	private final Cluster[] clusters;
+	//each entrance is 4 ints: the tile on this side, the tile on the other side, the cost of crossing over, and the cost of crossing back
+	private final int[][] rightEntrances;
+	private final int[][] topEntrances;
+	private final BitSet dirty;
+	private final HexPathfinder<T> pathfinder;
+	
+	//working memory for searches inside at most 2 by 2 clusters, indexed by raw location relative to the corner of the loaded area
+	private final int[] localTileCosts;
+	private final int[] localCosts;
+	private final int[] localStamps;
+	private int localStamp;
+	private final IntMinHeap localOpen;
+	private Cluster loaded;
+	private int[] fromStart = new int[16];
+	private int[] toGoal = new int[16];
+	private int[] run = new int[32];
+	private int runCount;
+	private int[] found = new int[32];
+	private int foundCount;
+	
+	/**
+	 * constructs a new HexHierarchicalPathfinder over the given grid, assuming that no tile costs less than 1 to move into
+	 * @param grid the grid to find paths over
+	 * @param cost the cost of moving into each tile
+	 * @param clusterSize the width and height of each cluster, in tiles
+	 */
+	public HexHierarchicalPathfinder(HexGrid<T> grid, TileCost<? super T> cost, int clusterSize){
+		this(grid, cost, clusterSize, 1);
+	}
+	
+	/**
+	 * constructs a new HexHierarchicalPathfinder over the given grid, building every cluster straight away
+	 * the minimum cost is used to estimate the remaining cost to the goal, in the same way as HexPathfinder
+	 * @param grid the grid to find paths over
+	 * @param cost the cost of moving into each tile
+	 * @param clusterSize the width and height of each cluster, in tiles. Larger clusters mean fewer nodes to search, but slower updates
+	 * @param minCost the lowest cost of moving into any tile
+	 */
+	public HexHierarchicalPathfinder(HexGrid<T> grid, TileCost<? super T> cost, int clusterSize, int minCost){
+		if(clusterSize<2)
+			throw new IllegalArgumentException("clusterSize must be at least 2, was " + clusterSize);
+		this.grid = grid;
+		this.cost = cost;
+		this.minCost = minCost;
+		this.clusterSize = clusterSize;
+		width = grid.getWidth();
+		height = grid.getHeight();
+		clustersWide = (width+clusterSize-1)/clusterSize;
+		clustersHigh = (height+clusterSize-1)/clusterSize;
+		int count = clustersWide*clustersHigh;
+		clusters = new Cluster[count];
+		for(int cy = 0; cy < clustersHigh; cy++)
+			for(int cx = 0; cx < clustersWide; cx++)
+				clusters[cy*clustersWide + cx] = new Cluster(cx*clusterSize, cy*clusterSize, 
+						Math.min((cx+1)*clusterSize, width), Math.min((cy+1)*clusterSize, height));
+		rightEntrances = new int[count][];
+		topEntrances = new int[count][];
+		dirty = new BitSet(count);
+		pathfinder = new HexPathfinder<T>(grid, cost, minCost);
+		int localSize = 4*clusterSize*clusterSize;
+		localTileCosts = new int[localSize];
+		localCosts = new int[localSize];
+		localStamps = new int[localSize];
+		localOpen = new IntMinHeap(localSize);
+		rebuild();
+	}
+	
+	/**
+	 * rebuilds every cluster from scratch, reading the cost of every tile again
+	 */
+	public void rebuild(){
+		for(int cy = 0; cy < clustersHigh; cy++){
+			for(int cx = 0; cx < clustersWide; cx++){
+				scanRight(cx, cy);
+				scanTop(cx, cy);
+			}
+		}
+		for(int i = 0; i < clusters.length; i++){
+			buildNodes(i);
+			buildCosts(clusters[i]);
+		}
+		dirty.clear();
+	}
+	
+	/**
+	 * records that the tile with the given index has changed, so that its cluster will be rebuilt on the next update()
+	 * @param index the index of the tile
+	 */
+	public void tileChanged(int index){
+		dirty.set(getCluster(index));
+	}
+	
+	/**
+	 * records that the tile at the given HexLocation has changed
+	 * @param location the location of the tile
+	 */
+	public void tileChanged(HexLocation location){
+		tileChanged(grid.getIndex(location));
+	}
+	
+	/**
+	 * rebuilds the clusters containing every tile passed to tileChanged since the last update.
+	 * the entrances on the borders of those clusters are found again, and the clusters next to them only have their costs rebuilt if their entrances changed
+	 * @return the number of clusters whose costs were rebuilt
+	 */
+	public int update(){
+		if(dirty.isEmpty())
+			return 0;
+		BitSet affected = new BitSet(clusters.length);
+		for(int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i+1)){
+			int cx = i%clustersWide;
+			int cy = i/clustersWide;
+			//every border with tiles from this cluster on either side
+			scanRight(cx, cy);
+			scanTop(cx, cy);
+			if(cx>0)
+				scanRight(cx-1, cy);
+			if(cy>0){
+				for(int x = Math.max(cx-1, 0); x <= Math.min(cx+1, clustersWide-1); x++)
+					scanTop(x, cy-1);
+			}
+			//and every cluster with an end of one of those borders
+			for(int y = Math.max(cy-1, 0); y <= Math.min(cy+1, clustersHigh-1); y++)
+				for(int x = Math.max(cx-2, 0); x <= Math.min(cx+2, clustersWide-1); x++)
+					affected.set(y*clustersWide + x);
+		}
+		int rebuilt = 0;
+		for(int i = affected.nextSetBit(0); i >= 0; i = affected.nextSetBit(i+1)){
+			if(buildNodes(i)||dirty.get(i)){
+				buildCosts(clusters[i]);
+				rebuilt++;
+			}
+		}
+		dirty.clear();
+		return rebuilt;
+	}
+	
+	/**
+	 * creates a new HexSearchContext big enough to search this pathfinder's grid
+	 * @return a new HexSearchContext
+	 */
+	public HexSearchContext createContext(){
+		return new HexSearchContext(grid.getSize());
+	}
+	
+	/**
+	 * finds a path between the given HexLocations
+	 * @param context the context to search with, which will hold the waypoints of the path afterwards
+	 * @param start the location to start from
+	 * @param goal the location to find a path to
+	 * @return the total cost of the path, or -1 if there is no path
+	 */
+	public int findPath(HexSearchContext context, HexLocation start, HexLocation goal){
+		int startIndex = grid.getIndex(start);
+		int goalIndex = grid.getIndex(goal);
+		if(startIndex<0||goalIndex<0)
+			return -1;
+		return findPath(context, startIndex, goalIndex);
+	}
+	
+	/**
+	 * finds a path between the tiles with the given indices, searching between cluster entrances rather than tiles.
+	 * afterwards, the waypoints of the path can be fetched with context.getPath(goal, out), and each step between them turned into tiles with refine()
+	 * unlike HexPathfinder, the start must be passable, since impassable tiles are never entrances
+	 * @param context the context to search with, which will hold the waypoints of the path afterwards
+	 * @param start the index of the tile to start from
+	 * @param goal the index of the tile to find a path to
+	 * @return the total cost of the path, or -1 if there is no path
+	 */
+	public int findPath(HexSearchContext context, int start, int goal){
+		if(getTileCost(start%width, start/width)<0)
+			return -1;
+		int startClusterIndex = getCluster(start);
+		int goalClusterIndex = getCluster(goal);
+		Cluster startCluster = clusters[startClusterIndex];
+		Cluster goalCluster = clusters[goalClusterIndex];
+		//a path between close tiles might never pass through an entrance, or only through one far out of the way, so try staying inside their clusters too
+		int direct = -1;
+		Cluster area = getArea(startClusterIndex, goalClusterIndex);
+		if(area!=null){
+			loadCluster(area);
+			searchCluster(area, start, false, goal);
+			direct = getLocalCost(goal);
+		}
+		//connect the start and the goal to the nodes of their clusters
+		loadCluster(startCluster);
+		searchCluster(startCluster, start, false, -1);
+		fromStart = getLocalCosts(startCluster, fromStart);
+		loadCluster(goalCluster);
+		searchCluster(goalCluster, goal, true, -1);
+		toGoal = getLocalCosts(goalCluster, toGoal);
+		int goalY = goal/width;
+		int goalX = goal%width - goalY/2;
+		IntMinHeap open = context.open;
+		context.begin();
+		context.reach(start, 0, -1);
+		open.push(start, 0);
+		while(!open.isEmpty()){
+			int current = open.pop();
+			int currentCost = context.getCost(current);
+			if(current==goal)
+				return currentCost;
+			if(current==start){
+				int[] nodes = startCluster.nodes;
+				for(int i = 0; i < nodes.length; i++)
+					if(fromStart[i]>=0)
+						relax(context, current, nodes[i], currentCost + fromStart[i], goalX, goalY);
+				if(direct>=0)
+					relax(context, current, goal, currentCost + direct, goalX, goalY);
+			}
+			int clusterIndex = getCluster(current);
+			Cluster cluster = clusters[clusterIndex];
+			int node = Arrays.binarySearch(cluster.nodes, current);
+			if(node<0)
+				continue;
+			int[] nodes = cluster.nodes;
+			int[] costs = cluster.costs;
+			int row = node*nodes.length;
+			for(int i = 0; i < nodes.length; i++)
+				if(costs[row+i]>=0&&i!=node)
+					relax(context, current, nodes[i], currentCost + costs[row+i], goalX, goalY);
+			for(int e = cluster.edgeStarts[node]; e < cluster.edgeStarts[node+1]; e++)
+				relax(context, current, cluster.edgeTargets[e], currentCost + cluster.edgeCosts[e], goalX, goalY);
+			if(clusterIndex==goalClusterIndex&&toGoal[node]>=0)
+				relax(context, current, goal, currentCost + toGoal[node], goalX, goalY);
+		}
+		return -1;
+	}
+	
+	/**
+	 * finds the tiles of one step of a path found with findPath, using A* over only the one or two clusters holding the ends of the step, 
+	 * so the tiles found cost the same as the step did when the path was found (as long as no tiles have changed since).
+	 * waypoints that are not in the same or neighboring clusters, which findPath never gives, are searched over the whole grid instead.
+	 * afterwards, the tiles can be fetched with context.getPath(to, out), so the waypoints should be copied out of the context before refining
+	 * @param context the context to search with, which will hold the tiles of the step afterwards
+	 * @param from the waypoint at the start of the step
+	 * @param to the waypoint at the end of the step
+	 * @return the total cost of the step, or -1 if there is no path
+	 */
+	public int refine(HexSearchContext context, int from, int to){
+		Cluster area = getArea(getCluster(from), getCluster(to));
+		if(area==null)
+			return pathfinder.findPath(context, from, to);
+		loadCluster(area);
+		int areaWidth = area.x1-area.x0;
+		int goalY = to/width;
+		int goalX = to%width - goalY/2;
+		IntMinHeap open = context.open;
+		context.begin();
+		context.reach(from, 0, -1);
+		open.push(from, 0);
+		while(!open.isEmpty()){
+			int current = open.pop();
+			int currentCost = context.getCost(current);
+			if(current==to)
+				return currentCost;
+			int y = current/width;
+			int x = current%width - y/2;
+			for(int d = 0; d < 6; d++){
+				HexDirection dir = HexDirection.get(d);
+				int neighborY = y + dir.offsetY();
+				if(neighborY<area.y0||neighborY>=area.y1)
+					continue;
+				int neighborX = x + dir.offsetX() + neighborY/2;
+				if(neighborX<area.x0||neighborX>=area.x1)
+					continue;
+				int neighbor = neighborY*width + neighborX;
+				boolean reached = context.isReached(neighbor);
+				if(reached&&!open.contains(neighbor))
+					continue;
+				int tileCost = localTileCosts[(neighborY-area.y0)*areaWidth + neighborX-area.x0];
+				if(tileCost<0)
+					continue;
+				int newCost = currentCost + tileCost;
+				if(reached&&newCost>=context.getCost(neighbor))
+					continue;
+				context.reach(neighbor, newCost, current);
+				int dx = neighborX - neighborY/2 - goalX;
+				int dy = neighborY - goalY;
+				int distance = (Math.abs(dx) + Math.abs(dy) + Math.abs(dx+dy))/2;
+				open.push(neighbor, newCost + distance*minCost);
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * @return the number of clusters the grid is split into
+	 */
+	public int getClusterCount(){
+		return clusters.length;
+	}
+	
+	/**
+	 * @return the total number of nodes in every cluster, which is the most a search can ever look at
+	 */
+	public int getNodeCount(){
+		int count = 0;
+		for(int i = 0; i < clusters.length; i++)
+			count+=clusters[i].nodes.length;
+		return count;
+	}
+	
+	/**
+	 * @return the width and height of each cluster, in tiles
+	 */
+	public int getClusterSize(){
+		return clusterSize;
+	}
+	
+	/**
+	 * @return the grid this pathfinder searches over
+	 */
+	public HexGrid<T> getGrid(){
+		return grid;
+	}
+	
+	private void relax(HexSearchContext context, int from, int to, int newCost, int goalX, int goalY){
+		boolean reached = context.isReached(to);
+		if(reached&&(!context.open.contains(to)||newCost>=context.getCost(to)))
+			return;
+		context.reach(to, newCost, from);
+		int y = to/width;
+		int dx = to%width - y/2 - goalX;
+		int dy = y - goalY;
+		int distance = (Math.abs(dx) + Math.abs(dy) + Math.abs(dx+dy))/2;
+		context.open.push(to, newCost + distance*minCost);
+	}
+	
+	private int getCluster(int index){
+		return (index/width/clusterSize)*clustersWide + index%width/clusterSize;
+	}
+	
+	private int getTileCost(int x, int y){
+		return cost.getCost(grid.getAtRawLocation(x, y));
+	}
+	
+	//the area covered by both clusters, if they are the same or neighbors (including diagonally), otherwise null
+	private Cluster getArea(int first, int second){
+		if(first==second)
+			return clusters[first];
+		int firstX = first%clustersWide;
+		int firstY = first/clustersWide;
+		int secondX = second%clustersWide;
+		int secondY = second/clustersWide;
+		if(Math.abs(firstX-secondX)>1||Math.abs(firstY-secondY)>1)
+			return null;
+		Cluster a = clusters[first];
+		Cluster b = clusters[second];
+		return new Cluster(Math.min(a.x0, b.x0), Math.min(a.y0, b.y0), Math.max(a.x1, b.x1), Math.max(a.y1, b.y1));
+	}
+	
+	private static boolean isAdjacent(int x0, int y0, int x1, int y1){
+		int dx = x1 - y1/2 - x0 + y0/2;
+		int dy = y1-y0;
+		return Math.abs(dx) + Math.abs(dy) + Math.abs(dx+dy) <= 2;
+	}
+	
+	//finds the entrances between this cluster and the one to its right
+	private void scanRight(int cx, int cy){
+		Cluster c = clusters[cy*clustersWide + cx];
+		if(cx+1>=clustersWide){
+			rightEntrances[cy*clustersWide + cx] = EMPTY;
+			return;
+		}
+		foundCount = 0;
+		runCount = 0;
+		int x = c.x1-1;
+		for(int y = c.y0; y < c.y1; y++){
+			if(getTileCost(x, y)<0){
+				endRun();
+				continue;
+			}
+			for(int otherY = Math.max(y-1, c.y0); otherY <= Math.min(y+1, c.y1-1); otherY++)
+				if(isAdjacent(x, y, c.x1, otherY))
+					addCrossing(x, y, c.x1, otherY);
+		}
+		endRun();
+		rightEntrances[cy*clustersWide + cx] = Arrays.copyOf(found, foundCount);
+	}
+	
+	//finds the entrances between this cluster and the row of clusters above it
+	private void scanTop(int cx, int cy){
+		Cluster c = clusters[cy*clustersWide + cx];
+		if(cy+1>=clustersHigh){
+			topEntrances[cy*clustersWide + cx] = EMPTY;
+			return;
+		}
+		foundCount = 0;
+		runCount = 0;
+		int y = c.y1-1;
+		for(int x = c.x0; x < c.x1; x++){
+			if(getTileCost(x, y)<0){
+				endRun();
+				continue;
+			}
+			for(int otherX = Math.max(x-1, 0); otherX <= Math.min(x+1, width-1); otherX++)
+				if(isAdjacent(x, y, otherX, c.y1))
+					addCrossing(x, y, otherX, c.y1);
+		}
+		endRun();
+		topEntrances[cy*clustersWide + cx] = Arrays.copyOf(found, foundCount);
+	}
+	
+	//adds a pair of neighboring tiles on either side of a border, in order along the border, to the current run
+	private void addCrossing(int x, int y, int otherX, int otherY){
+		if(getTileCost(otherX, otherY)<0){
+			endRun();
+			return;
+		}
+		int inside = y*width + x;
+		int outside = otherY*width + otherX;
+		if(runCount>0){
+			//a run continues as long as the tiles on both sides stay next to each other, so that every crossing in a run leads to the same places
+			int lastInside = run[2*runCount-2];
+			int lastOutside = run[2*runCount-1];
+			if(!isAdjacent(lastInside%width, lastInside/width, x, y)
+					||!isAdjacent(lastOutside%width, lastOutside/width, otherX, otherY)
+					||getCluster(lastOutside)!=getCluster(outside))
+				endRun();
+		}
+		if(2*runCount+2>run.length)
+			run = Arrays.copyOf(run, run.length*2);
+		run[2*runCount] = inside;
+		run[2*runCount+1] = outside;
+		runCount++;
+	}
+	
+	private void endRun(){
+		if(runCount==0)
+			return;
+		addEntrance(runCount/2);
+		if(runCount>=LONG_RUN){
+			addEntrance(0);
+			addEntrance(runCount-1);
+		}
+		runCount = 0;
+	}
+	
+	//adds the crossing at the given position in the current run as an entrance
+	private void addEntrance(int crossing){
+		int inside = run[2*crossing];
+		int outside = run[2*crossing+1];
+		if(foundCount+4>found.length)
+			found = Arrays.copyOf(found, found.length*2);
+		found[foundCount++] = inside;
+		found[foundCount++] = outside;
+		found[foundCount++] = getTileCost(outside%width, outside/width);
+		found[foundCount++] = getTileCost(inside%width, inside/width);
+	}
+	
+	//gathers the nodes and the edges leaving the cluster from every border around it, returning whether the nodes changed
+	private boolean buildNodes(int clusterIndex){
+		Cluster c = clusters[clusterIndex];
+		int cx = clusterIndex%clustersWide;
+		int cy = clusterIndex/clustersWide;
+		int[][] borders = new int[6][];
+		int count = 0;
+		borders[count++] = rightEntrances[clusterIndex];
+		borders[count++] = topEntrances[clusterIndex];
+		if(cx>0)
+			borders[count++] = rightEntrances[clusterIndex-1];
+		if(cy>0){
+			for(int x = Math.max(cx-1, 0); x <= Math.min(cx+1, clustersWide-1); x++)
+				borders[count++] = topEntrances[(cy-1)*clustersWide + x];
+		}
+		int[] nodes = new int[16];
+		int nodeCount = 0;
+		for(int b = 0; b < count; b++){
+			int[] entrances = borders[b];
+			for(int i = 0; i < entrances.length; i+=4){
+				for(int side = 0; side < 2; side++){
+					int tile = entrances[i+side];
+					if(getCluster(tile)!=clusterIndex)
+						continue;
+					if(nodeCount==nodes.length)
+						nodes = Arrays.copyOf(nodes, nodeCount*2);
+					nodes[nodeCount++] = tile;
+				}
+			}
+		}
+		Arrays.sort(nodes, 0, nodeCount);
+		int unique = 0;
+		for(int i = 0; i < nodeCount; i++)
+			if(unique==0||nodes[unique-1]!=nodes[i])
+				nodes[unique++] = nodes[i];
+		nodes = Arrays.copyOf(nodes, unique);
+		//edges are stored per node, with node i's edges between edgeStarts[i] and edgeStarts[i+1]
+		int[] starts = new int[unique+1];
+		for(int b = 0; b < count; b++){
+			int[] entrances = borders[b];
+			for(int i = 0; i < entrances.length; i+=4)
+				for(int side = 0; side < 2; side++)
+					if(getCluster(entrances[i+side])==clusterIndex)
+						starts[Arrays.binarySearch(nodes, entrances[i+side])+1]++;
+		}
+		for(int i = 0; i < unique; i++)
+			starts[i+1]+=starts[i];
+		int[] next = Arrays.copyOf(starts, unique);
+		int[] targets = new int[starts[unique]];
+		int[] edgeCosts = new int[starts[unique]];
+		for(int b = 0; b < count; b++){
+			int[] entrances = borders[b];
+			for(int i = 0; i < entrances.length; i+=4){
+				for(int side = 0; side < 2; side++){
+					if(getCluster(entrances[i+side])!=clusterIndex)
+						continue;
+					int e = next[Arrays.binarySearch(nodes, entrances[i+side])]++;
+					targets[e] = entrances[i+1-side];
+					edgeCosts[e] = entrances[i+2+side];
+				}
+			}
+		}
+		c.edgeStarts = starts;
+		c.edgeTargets = targets;
+		c.edgeCosts = edgeCosts;
+		boolean changed = !Arrays.equals(nodes, c.nodes);
+		c.nodes = nodes;
+		return changed;
+	}
+	
+	//finds the cost between every pair of nodes in the cluster
+	private void buildCosts(Cluster c){
+		int n = c.nodes.length;
+		int[] costs = new int[n*n];
+		loadCluster(c);
+		for(int i = 0; i < n; i++){
+			searchCluster(c, c.nodes[i], false, -1);
+			for(int j = 0; j < n; j++)
+				costs[i*n+j] = getLocalCost(c.nodes[j]);
+		}
+		c.costs = costs;
+	}
+	
+	//copies the cost of every tile in the cluster (or area of clusters) into localTileCosts, so that searches inside it do not have to go through the grid
+	private void loadCluster(Cluster c){
+		loaded = c;
+		int stride = c.x1-c.x0;
+		for(int y = c.y0; y < c.y1; y++){
+			int row = (y-c.y0)*stride - c.x0;
+			for(int x = c.x0; x < c.x1; x++)
+				localTileCosts[row+x] = getTileCost(x, y);
+		}
+	}
+	
+	//Dijkstra's search from a tile, staying inside its cluster, which must have been loaded with loadCluster first.
+	//searching in reverse gives the cost of getting from each tile to the start, rather than from the start to each tile.
+	//the search stops once the target's cost is known, or runs over the whole cluster if the target is -1
+	private void searchCluster(Cluster c, int start, boolean reverse, int target){
+		if(++localStamp==Integer.MAX_VALUE){
+			Arrays.fill(localStamps, 0);
+			localStamp = 1;
+		}
+		localOpen.clear();
+		int stride = c.x1-c.x0;
+		int local = (start/width - c.y0)*stride + start%width - c.x0;
+		int localTarget = target>=0 ? (target/width - c.y0)*stride + target%width - c.x0 : -1;
+		localStamps[local] = localStamp;
+		localCosts[local] = 0;
+		localOpen.push(local, 0);
+		while(!localOpen.isEmpty()){
+			int current = localOpen.pop();
+			if(current==localTarget)
+				return;
+			int currentCost = localCosts[current];
+			int y = current/stride + c.y0;
+			int rawX = current%stride + c.x0;
+			int stepCost = 0;
+			if(reverse){
+				stepCost = localTileCosts[current];
+				if(stepCost<0)
+					continue;
+			}
+			int x = rawX - y/2;
+			for(int d = 0; d < 6; d++){
+				HexDirection dir = HexDirection.get(d);
+				int neighborY = y + dir.offsetY();
+				if(neighborY<c.y0||neighborY>=c.y1)
+					continue;
+				int neighborX = x + dir.offsetX() + neighborY/2;
+				if(neighborX<c.x0||neighborX>=c.x1)
+					continue;
+				int neighbor = (neighborY-c.y0)*stride + neighborX-c.x0;
+				boolean reached = localStamps[neighbor]==localStamp;
+				if(reached&&!localOpen.contains(neighbor))
+					continue;
+				int tileCost = localTileCosts[neighbor];
+				if(tileCost<0)
+					continue;
+				int newCost = currentCost + (reverse ? stepCost : tileCost);
+				if(reached&&newCost>=localCosts[neighbor])
+					continue;
+				localStamps[neighbor] = localStamp;
+				localCosts[neighbor] = newCost;
+				localOpen.push(neighbor, newCost);
+			}
+		}
+	}
+	
+	private int getLocalCost(int index){
+		Cluster c = loaded;
+		int local = (index/width - c.y0)*(c.x1-c.x0) + index%width - c.x0;
+		return localStamps[local]==localStamp ? localCosts[local] : -1;
+	}
+	
+	//copies the costs of the last cluster search at each node of the cluster into out, growing it if needed
+	private int[] getLocalCosts(Cluster c, int[] out){
+		int[] nodes = c.nodes;
+		if(out.length<nodes.length)
+			out = new int[Math.max(nodes.length, out.length*2)];
+		for(int i = 0; i < nodes.length; i++)
+			out[i] = getLocalCost(nodes[i]);
+		return out;
+	}
+	
+	private static class Cluster
+	{
+		public final int x0;
+		public final int y0;
+		public final int x1;
+		public final int y1;
+		public int[] nodes = EMPTY;
+		public int[] costs = EMPTY;
+		public int[] edgeStarts = new int[1];
+		public int[] edgeTargets = EMPTY;
+		public int[] edgeCosts = EMPTY;
+		
+		public Cluster(int x0, int y0, int x1, int y1)
+		{
+			this.x0 = x0;
+			this.y0 = y0;
+			this.x1 = x1;
+			this.y1 = y1;
+		}
+		
+	}
+
+}
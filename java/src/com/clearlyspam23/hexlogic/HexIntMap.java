@@ -0,0 +1,200 @@
+package com.clearlyspam23.hexlogic;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * A map from hex coordinates, packed into longs (see PackedHex), to ints.
+ * 
+ * Both keys and values are stored in primitive arrays, so adding, fetching, removing and iterating create no garbage
+ * (other than when the map needs to grow). See PackedHexTable for how to iterate over the entries.
+ * 
+ * @author clearlyspam23
+ *
+ */
+public class HexIntMap extends PackedHexTable {
+	
+	private int[] values;
+	private int[] oldValues;
+	
+	/**
+	 * constructs a new, empty HexIntMap
+	 */
+	public HexIntMap(){
+		this(16);
+	}
+	
+	/**
+	 * constructs a new, empty HexIntMap, with room for the given number of entries before it needs to grow
+	 * @param expectedSize the number of entries expected
+	 */
+	public HexIntMap(int expectedSize){
+		super(expectedSize);
+		values = new int[getCapacity()+1];
+	}
+	
+	/**
+	 * gets the value stored at the given coordinates
+	 * @param key coordinates packed into a long
+	 * @param defaultValue the value to return if there is no value at those coordinates
+	 * @return the value at those coordinates, or defaultValue if there is none
+	 */
+	public int get(long key, int defaultValue){
+		int slot = findSlot(key);
+		return slot<0 ? defaultValue : values[slot];
+	}
+	
+	/**
+	 * gets the value stored at the given coordinates
+	 * @param x the horizontal component
+	 * @param y the diagonal component
+	 * @param defaultValue the value to return if there is no value at those coordinates
+	 * @return the value at those coordinates, or defaultValue if there is none
+	 */
+	public int get(int x, int y, int defaultValue){
+		return get(PackedHex.pack(x, y), defaultValue);
+	}
+	
+	/**
+	 * gets the value stored at the given HexLocation
+	 * @param location the location to get
+	 * @param defaultValue the value to return if there is no value at that location
+	 * @return the value at that location, or defaultValue if there is none
+	 */
+	public int get(HexLocation location, int defaultValue){
+		return get(PackedHex.pack(location), defaultValue);
+	}
+	
+	/**
+	 * stores a value at the given coordinates
+	 * @param key coordinates packed into a long
+	 * @param value the value to store
+	 */
+	public void put(long key, int value){
+		int slot = insertSlot(key);
+		values[slot<0 ? -slot-1 : slot] = value;
+	}
+	
+	/**
+	 * stores a value at the given coordinates
+	 * @param x the horizontal component
+	 * @param y the diagonal component
+	 * @param value the value to store
+	 */
+	public void put(int x, int y, int value){
+		put(PackedHex.pack(x, y), value);
+	}
+	
+	/**
+	 * stores a value at the given HexLocation
+	 * @param location the location to store the value at
+	 * @param value the value to store
+	 */
+	public void put(HexLocation location, int value){
+		put(PackedHex.pack(location), value);
+	}
+	
+	/**
+	 * adds to the value stored at the given coordinates, treating a missing value as 0
+	 * @param key coordinates packed into a long
+	 * @param amount the amount to add
+	 * @return the new value at those coordinates
+	 */
+	public int addTo(long key, int amount){
+		int slot = insertSlot(key);
+		if(slot<0){
+			slot = -slot-1;
+			values[slot] = 0;
+		}
+		return values[slot]+=amount;
+	}
+	
+	/**
+	 * removes the value stored at the given coordinates
+	 * @param key coordinates packed into a long
+	 * @return whether or not there was a value to remove
+	 */
+	public boolean remove(long key){
+		int slot = findSlot(key);
+		if(slot<0)
+			return false;
+		removeSlot(slot);
+		return true;
+	}
+	
+	/**
+	 * removes the value stored at the given coordinates
+	 * @param x the horizontal component
+	 * @param y the diagonal component
+	 * @return whether or not there was a value to remove
+	 */
+	public boolean remove(int x, int y){
+		return remove(PackedHex.pack(x, y));
+	}
+	
+	/**
+	 * gets the value stored in the given slot, for iterating over this map
+	 * @param slot a slot holding an entry
+	 * @return the value in that slot
+	 */
+	public int valueAt(int slot){
+		return values[slot];
+	}
+	
+	/**
+	 * replaces the value stored in the given slot, for changing values while iterating over this map
+	 * @param slot a slot holding an entry
+	 * @param value the new value for that slot
+	 */
+	public void setValueAt(int slot, int value){
+		values[slot] = value;
+	}
+
+	@Override
+	protected void beginResize(int capacity) {
+		oldValues = values;
+		values = new int[capacity+1];
+	}
+
+	@Override
+	protected void resizeValue(int oldSlot, int newSlot) {
+		values[newSlot] = oldValues[oldSlot];
+	}
+
+	@Override
+	protected void endResize() {
+		oldValues = null;
+	}
+
+	@Override
+	protected void moveValue(int from, int to) {
+		values[to] = values[from];
+	}
+
+	@Override
+	protected void clearValue(int slot) {
+		values[slot] = 0;
+	}
+
+}
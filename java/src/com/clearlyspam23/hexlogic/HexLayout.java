@@ -0,0 +1,292 @@
+package com.clearlyspam23.hexlogic;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * Converts between HexLocations and pixel space, for placing sprites, picking hexagons with the mouse, and so on.
+ * 
+ * A layout is made of an orientation (pointy or flat topped hexagons), a size, which is the distance from the center of a hexagon to its corners, 
+ * and an origin, which is the pixel position of the center of the hexagon at 0, 0.
+ * The size can be different horizontally and vertically, to squash or stretch the hexagons.
+ * Pixel y grows downwards, as it does on most screens, so for pointy hexagons northeast is up and to the right.
+ * 
+ * Other than the single conversions into a new HexLocation, nothing here allocates. 
+ * The batch conversions work on separate x and y arrays, with a plain loop over them and no branches inside it, 
+ * so that the JIT can unroll and vectorize them, and random points cannot cause branch mispredictions.
+ * 
+ * A layout cannot be changed once created, so it can be shared between threads.
+ * 
+ * @author clearlyspam23
+ *
+ */
+public class HexLayout {
+	
+	private static final double THIRD = 1.0/3;
+	
+	private final HexOrientation orientation;
+	private final float sizeX;
+	private final float sizeY;
+	private final float originX;
+	private final float originY;
+	
+	//hex to pixel, px = toPixelXX*x + toPixelXY*y + originX, py = toPixelYX*x + toPixelYY*y + originY
+	private final float toPixelXX;
+	private final float toPixelXY;
+	private final float toPixelYX;
+	private final float toPixelYY;
+	//and the inverse of it
+	private final float toHexXX;
+	private final float toHexXY;
+	private final float toHexYX;
+	private final float toHexYY;
+	
+	/**
+	 * constructs a new HexLayout with the given orientation and size, with the hexagon at 0, 0 centered on the origin of pixel space
+	 * @param orientation whether the hexagons are pointy or flat topped
+	 * @param size the distance from the center of each hexagon to its corners, in pixels
+	 */
+	public HexLayout(HexOrientation orientation, float size){
+		this(orientation, size, size, 0, 0);
+	}
+	
+	/**
+	 * constructs a new HexLayout
+	 * @param orientation whether the hexagons are pointy or flat topped
+	 * @param sizeX the horizontal distance from the center of each hexagon to its corners, in pixels
+	 * @param sizeY the vertical distance from the center of each hexagon to its corners, in pixels
+	 * @param originX the horizontal pixel position of the center of the hexagon at 0, 0
+	 * @param originY the vertical pixel position of the center of the hexagon at 0, 0
+	 */
+	public HexLayout(HexOrientation orientation, float sizeX, float sizeY, float originX, float originY){
+		this.orientation = orientation;
+		this.sizeX = sizeX;
+		this.sizeY = sizeY;
+		this.originX = originX;
+		this.originY = originY;
+		toPixelXX = orientation.xAxisX()*sizeX;
+		toPixelXY = orientation.yAxisX()*sizeX;
+		toPixelYX = orientation.xAxisY()*sizeY;
+		toPixelYY = orientation.yAxisY()*sizeY;
+		float determinant = toPixelXX*toPixelYY - toPixelXY*toPixelYX;
+		toHexXX = toPixelYY/determinant;
+		toHexXY = -toPixelXY/determinant;
+		toHexYX = -toPixelYX/determinant;
+		toHexYY = toPixelXX/determinant;
+	}
+	
+	/**
+	 * gets the horizontal pixel position of the center of the given hexagon
+	 * @param x the horizontal component of the hexagon
+	 * @param y the diagonal component of the hexagon
+	 * @return the horizontal pixel position of its center
+	 */
+	public float toPixelX(int x, int y){
+		return toPixelXX*x + toPixelXY*y + originX;
+	}
+	
+	/**
+	 * gets the vertical pixel position of the center of the given hexagon
+	 * @param x the horizontal component of the hexagon
+	 * @param y the diagonal component of the hexagon
+	 * @return the vertical pixel position of its center
+	 */
+	public float toPixelY(int x, int y){
+		return toPixelYX*x + toPixelYY*y + originY;
+	}
+	
+	/**
+	 * gets the horizontal pixel position of the center of the given HexLocation
+	 * @param location the HexLocation
+	 * @return the horizontal pixel position of its center
+	 */
+	public float toPixelX(HexLocation location){
+		return toPixelX(location.x(), location.y());
+	}
+	
+	/**
+	 * gets the vertical pixel position of the center of the given HexLocation
+	 * @param location the HexLocation
+	 * @return the vertical pixel position of its center
+	 */
+	public float toPixelY(HexLocation location){
+		return toPixelY(location.x(), location.y());
+	}
+	
+	/**
+	 * finds the hexagon containing the given pixel
+	 * @param pixelX the horizontal pixel position
+	 * @param pixelY the vertical pixel position
+	 * @return a new HexLocation, of the hexagon containing that pixel
+	 */
+	public HexLocation fromPixel(float pixelX, float pixelY){
+		return fromPixel(pixelX, pixelY, new HexLocation());
+	}
+	
+	/**
+	 * finds the hexagon containing the given pixel
+	 * @param pixelX the horizontal pixel position
+	 * @param pixelY the vertical pixel position
+	 * @param outLoc the HexLocation to store the result in
+	 * @return outLoc, for chaining
+	 */
+	public HexLocation fromPixel(float pixelX, float pixelY, HexLocation outLoc){
+		long packed = fromPixelPacked(pixelX, pixelY);
+		return outLoc.set(PackedHex.x(packed), PackedHex.y(packed));
+	}
+	
+	/**
+	 * finds the hexagon containing the given pixel, without creating a HexLocation
+	 * @param pixelX the horizontal pixel position
+	 * @param pixelY the vertical pixel position
+	 * @return the coordinates of the hexagon containing that pixel, packed with PackedHex.pack
+	 */
+	public long fromPixelPacked(float pixelX, float pixelY){
+		//rather than rounding each cube coordinate and fixing up the worst one like HexLocation.round, 
+		//this floors the differences between them, which picks the same hexagon without any branches
+		float px = pixelX - originX;
+		float py = pixelY - originY;
+		float x = toHexXX*px + toHexXY*py;
+		float y = toHexYX*px + toHexYY*py;
+		float z = -x-y;
+		double a = Math.floor(x-y);
+		double b = Math.floor(y-z);
+		double c = Math.floor(z-x);
+		int roundX = (int) Math.rint((a-c)*THIRD);
+		int roundY = (int) Math.rint((b-a)*THIRD);
+		return PackedHex.pack(roundX, roundY);
+	}
+	
+	/**
+	 * finds the pixel positions of the centers of many hexagons at once
+	 * reads hexX[i] and hexY[i], and writes pixelX[i] and pixelY[i], for i from offset to offset+count-1
+	 * @param hexX the horizontal components of the hexagons
+	 * @param hexY the diagonal components of the hexagons
+	 * @param pixelX the array to store the horizontal pixel positions in
+	 * @param pixelY the array to store the vertical pixel positions in
+	 * @param offset the first index to convert
+	 * @param count the number of hexagons to convert
+	 */
+	public void toPixels(int[] hexX, int[] hexY, float[] pixelX, float[] pixelY, int offset, int count){
+		float xx = toPixelXX;
+		float xy = toPixelXY;
+		float yx = toPixelYX;
+		float yy = toPixelYY;
+		float ox = originX;
+		float oy = originY;
+		int end = offset+count;
+		for(int i = offset; i < end; i++){
+			float x = hexX[i];
+			float y = hexY[i];
+			pixelX[i] = xx*x + xy*y + ox;
+			pixelY[i] = yx*x + yy*y + oy;
+		}
+	}
+	
+	/**
+	 * finds the hexagons containing many pixels at once
+	 * reads pixelX[i] and pixelY[i], and writes hexX[i] and hexY[i], for i from offset to offset+count-1
+	 * @param pixelX the horizontal pixel positions
+	 * @param pixelY the vertical pixel positions
+	 * @param hexX the array to store the horizontal components of the hexagons in
+	 * @param hexY the array to store the diagonal components of the hexagons in
+	 * @param offset the first index to convert
+	 * @param count the number of pixels to convert
+	 */
+	public void fromPixels(float[] pixelX, float[] pixelY, int[] hexX, int[] hexY, int offset, int count){
+		float xx = toHexXX;
+		float xy = toHexXY;
+		float yx = toHexYX;
+		float yy = toHexYY;
+		float ox = originX;
+		float oy = originY;
+		int end = offset+count;
+		for(int i = offset; i < end; i++){
+			float px = pixelX[i] - ox;
+			float py = pixelY[i] - oy;
+			float x = xx*px + xy*py;
+			float y = yx*px + yy*py;
+			float z = -x-y;
+			//the same rounding as fromPixelPacked
+			double a = Math.floor(x-y);
+			double b = Math.floor(y-z);
+			double c = Math.floor(z-x);
+			hexX[i] = (int) Math.rint((a-c)*THIRD);
+			hexY[i] = (int) Math.rint((b-a)*THIRD);
+		}
+	}
+	
+	/**
+	 * finds the pixel positions of the 6 corners of the given hexagon, for drawing it
+	 * the corners go clockwise, starting from the one given by HexOrientation.getStartAngle()
+	 * @param x the horizontal component of the hexagon
+	 * @param y the diagonal component of the hexagon
+	 * @param out the array to store the corners in, as x, y pairs, must be at least 12 long
+	 */
+	public void getCorners(int x, int y, float[] out){
+		float centerX = toPixelX(x, y);
+		float centerY = toPixelY(x, y);
+		for(int i = 0; i < 6; i++){
+			double angle = Math.PI*(orientation.getStartAngle()+i)/3;
+			out[2*i] = centerX + sizeX*(float) Math.cos(angle);
+			out[2*i+1] = centerY + sizeY*(float) Math.sin(angle);
+		}
+	}
+	
+	/**
+	 * @return whether the hexagons of this layout are pointy or flat topped
+	 */
+	public HexOrientation getOrientation(){
+		return orientation;
+	}
+	
+	/**
+	 * @return the horizontal distance from the center of each hexagon to its corners, in pixels
+	 */
+	public float getSizeX(){
+		return sizeX;
+	}
+	
+	/**
+	 * @return the vertical distance from the center of each hexagon to its corners, in pixels
+	 */
+	public float getSizeY(){
+		return sizeY;
+	}
+	
+	/**
+	 * @return the horizontal pixel position of the center of the hexagon at 0, 0
+	 */
+	public float getOriginX(){
+		return originX;
+	}
+	
+	/**
+	 * @return the vertical pixel position of the center of the hexagon at 0, 0
+	 */
+	public float getOriginY(){
+		return originY;
+	}
+
+}
@@ -0,0 +1,149 @@
+package com.clearlyspam23.hexlogic;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * Traces lines between hexagons using only integer math, and without creating any objects.
+ * 
+ * This finds the same hexagons as HexLocation.getLine, which samples N+1 evenly spaced points between the two centers (N being the distance) and rounds each one to a hexagon,
+ * but the points are tracked exactly as fractions of 6N rather than with floats.
+ * Points that land exactly on an edge between hexagons are nudged by a fixed, tiny amount, so lines are always traced the same way, 
+ * and a line traced from A to B passes through the same hexagons as the line from B to A wherever it doesn't land on an edge.
+ * 
+ * @author clearlyspam23
+ *
+ */
+public final class HexLine {
+	
+	private HexLine(){
+		
+	}
+	
+	/**
+	 * traces the line between the given HexLocations, passing each hexagon along it to the visitor, including both ends
+	 * @param start the start of the line
+	 * @param end the end of the line
+	 * @param visitor receives each hexagon along the line, and can stop the trace early
+	 * @return the number of hexagons visited, including the one that stopped the trace
+	 */
+	public static int trace(HexLocation start, HexLocation end, HexLineVisitor visitor){
+		return trace(start.x(), start.y(), end.x(), end.y(), visitor);
+	}
+	
+	/**
+	 * traces the line between the given coordinates, passing each hexagon along it to the visitor, including both ends
+	 * @param x0 the horizontal component of the start of the line
+	 * @param y0 the diagonal component of the start of the line
+	 * @param x1 the horizontal component of the end of the line
+	 * @param y1 the diagonal component of the end of the line
+	 * @param visitor receives each hexagon along the line, and can stop the trace early
+	 * @return the number of hexagons visited, including the one that stopped the trace
+	 */
+	public static int trace(int x0, int y0, int x1, int y1, HexLineVisitor visitor){
+		int dx = x1-x0;
+		int dy = y1-y0;
+		int n = (Math.abs(dx) + Math.abs(dy) + Math.abs(dx+dy))/2;
+		if(n==0){
+			visitor.visit(x0, y0);
+			return 1;
+		}
+		//each point is kept as cube coordinates in units of 1/(6n) of a hexagon, nudged by (1, 2, -3) units to break ties
+		long scale = 6L*n;
+		long half = 3L*n;
+		long x = scale*x0 + 1;
+		long y = scale*y0 + 2;
+		long z = -scale*(x0+y0) - 3;
+		long stepX = 6L*dx;
+		long stepY = 6L*dy;
+		long stepZ = -6L*(dx+dy);
+		for(int i = 0; i <= n; i++){
+			long roundX = Math.floorDiv(x + half, scale);
+			long roundY = Math.floorDiv(y + half, scale);
+			long roundZ = Math.floorDiv(z + half, scale);
+			long diffX = Math.abs(x - roundX*scale);
+			long diffY = Math.abs(y - roundY*scale);
+			long diffZ = Math.abs(z - roundZ*scale);
+			if(diffX>diffY&&diffX>diffZ)
+				roundX = -roundY-roundZ;
+			else if(diffY>diffZ)
+				roundY = -roundX-roundZ;
+			if(!visitor.visit((int)roundX, (int)roundY))
+				return i+1;
+			x+=stepX;
+			y+=stepY;
+			z+=stepZ;
+		}
+		return n+1;
+	}
+	
+	/**
+	 * traces the line between the given coordinates, storing each hexagon along it as coordinates packed into an int (see PackedHex.packInt)
+	 * if the line is longer than the room left in the buffer, only the start of the line is stored
+	 * @param x0 the horizontal component of the start of the line
+	 * @param y0 the diagonal component of the start of the line
+	 * @param x1 the horizontal component of the end of the line
+	 * @param y1 the diagonal component of the end of the line
+	 * @param out the buffer to store the packed coordinates in
+	 * @param offset the position in out to store the first hexagon
+	 * @return the number of hexagons stored
+	 */
+	public static int trace(int x0, int y0, int x1, int y1, int[] out, int offset){
+		int dx = x1-x0;
+		int dy = y1-y0;
+		int n = (Math.abs(dx) + Math.abs(dy) + Math.abs(dx+dy))/2;
+		int count = Math.min(n+1, out.length-offset);
+		if(n==0){
+			if(count>0)
+				out[offset] = PackedHex.packInt(x0, y0);
+			return count;
+		}
+		long scale = 6L*n;
+		long half = 3L*n;
+		long x = scale*x0 + 1;
+		long y = scale*y0 + 2;
+		long z = -scale*(x0+y0) - 3;
+		long stepX = 6L*dx;
+		long stepY = 6L*dy;
+		long stepZ = -6L*(dx+dy);
+		for(int i = 0; i < count; i++){
+			long roundX = Math.floorDiv(x + half, scale);
+			long roundY = Math.floorDiv(y + half, scale);
+			long roundZ = Math.floorDiv(z + half, scale);
+			long diffX = Math.abs(x - roundX*scale);
+			long diffY = Math.abs(y - roundY*scale);
+			long diffZ = Math.abs(z - roundZ*scale);
+			if(diffX>diffY&&diffX>diffZ)
+				roundX = -roundY-roundZ;
+			else if(diffY>diffZ)
+				roundY = -roundX-roundZ;
+			out[offset+i] = PackedHex.packInt((int)roundX, (int)roundY);
+			x+=stepX;
+			y+=stepY;
+			z+=stepZ;
+		}
+		return count;
+	}
+
+}
@@ -229,6 +229,7 @@ public class HexLocation {
 	
 	/**
 	 * calculates all HexLocations forming a line between two locations
+	 * this creates a new HexLocation for every step, for tracing lines in tight loops, see HexLine
 	 * @param loc1 the first location
 	 * @param loc2 the second location
 	 * @return a line between the two locations
@@ -278,6 +279,10 @@ public class HexLocation {
 		return x==o.x&&y==o.y&&z==o.z;
 	}
 	
+	public int hashCode(){
+		return PackedHex.hash(PackedHex.pack(x, y));
+	}
+	
 	/**
 	 * gets the closest direction towards the other HexLocation
 	 * @param other the HexLocation to get the direction towards
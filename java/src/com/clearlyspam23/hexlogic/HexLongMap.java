@@ -0,0 +1,197 @@
+package com.clearlyspam23.hexlogic;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * A map from hex coordinates, packed into longs (see PackedHex), to objects.
+ * 
+ * Unlike a HashMap keyed by HexLocation, no key or entry objects are created, so adding, fetching, removing and iterating create no garbage
+ * (other than when the map needs to grow). See PackedHexTable for how to iterate over the entries.
+ * 
+ * @author clearlyspam23
+ *
+ * @param <V> the type of values stored in this map
+ */
+public class HexLongMap<V> extends PackedHexTable {
+	
+	private Object[] values;
+	private Object[] oldValues;
+	
+	/**
+	 * constructs a new, empty HexLongMap
+	 */
+	public HexLongMap(){
+		this(16);
+	}
+	
+	/**
+	 * constructs a new, empty HexLongMap, with room for the given number of entries before it needs to grow
+	 * @param expectedSize the number of entries expected
+	 */
+	public HexLongMap(int expectedSize){
+		super(expectedSize);
+		values = new Object[getCapacity()+1];
+	}
+	
+	/**
+	 * gets the value stored at the given coordinates
+	 * @param key coordinates packed into a long
+	 * @return the value at those coordinates, or null if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(long key){
+		int slot = findSlot(key);
+		return slot<0 ? null : (V)values[slot];
+	}
+	
+	/**
+	 * gets the value stored at the given coordinates
+	 * @param x the horizontal component
+	 * @param y the diagonal component
+	 * @return the value at those coordinates, or null if there is none
+	 */
+	public V get(int x, int y){
+		return get(PackedHex.pack(x, y));
+	}
+	
+	/**
+	 * gets the value stored at the given HexLocation
+	 * @param location the location to get
+	 * @return the value at that location, or null if there is none
+	 */
+	public V get(HexLocation location){
+		return get(PackedHex.pack(location));
+	}
+	
+	/**
+	 * stores a value at the given coordinates
+	 * @param key coordinates packed into a long
+	 * @param value the value to store
+	 * @return the value previously stored at those coordinates, or null if there was none
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(long key, V value){
+		int slot = insertSlot(key);
+		if(slot<0){
+			values[-slot-1] = value;
+			return null;
+		}
+		V ans = (V)values[slot];
+		values[slot] = value;
+		return ans;
+	}
+	
+	/**
+	 * stores a value at the given coordinates
+	 * @param x the horizontal component
+	 * @param y the diagonal component
+	 * @param value the value to store
+	 * @return the value previously stored at those coordinates, or null if there was none
+	 */
+	public V put(int x, int y, V value){
+		return put(PackedHex.pack(x, y), value);
+	}
+	
+	/**
+	 * stores a value at the given HexLocation
+	 * @param location the location to store the value at
+	 * @param value the value to store
+	 * @return the value previously stored at that location, or null if there was none
+	 */
+	public V put(HexLocation location, V value){
+		return put(PackedHex.pack(location), value);
+	}
+	
+	/**
+	 * removes the value stored at the given coordinates
+	 * @param key coordinates packed into a long
+	 * @return the value that was removed, or null if there was none
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(long key){
+		int slot = findSlot(key);
+		if(slot<0)
+			return null;
+		V ans = (V)values[slot];
+		removeSlot(slot);
+		return ans;
+	}
+	
+	/**
+	 * removes the value stored at the given coordinates
+	 * @param x the horizontal component
+	 * @param y the diagonal component
+	 * @return the value that was removed, or null if there was none
+	 */
+	public V remove(int x, int y){
+		return remove(PackedHex.pack(x, y));
+	}
+	
+	/**
+	 * gets the value stored in the given slot, for iterating over this map
+	 * @param slot a slot holding an entry
+	 * @return the value in that slot
+	 */
+	@SuppressWarnings("unchecked")
+	public V valueAt(int slot){
+		return (V)values[slot];
+	}
+	
+	/**
+	 * replaces the value stored in the given slot, for changing values while iterating over this map
+	 * @param slot a slot holding an entry
+	 * @param value the new value for that slot
+	 */
+	public void setValueAt(int slot, V value){
+		values[slot] = value;
+	}
+
+	@Override
+	protected void beginResize(int capacity) {
+		oldValues = values;
+		values = new Object[capacity+1];
+	}
+
+	@Override
+	protected void resizeValue(int oldSlot, int newSlot) {
+		values[newSlot] = oldValues[oldSlot];
+	}
+
+	@Override
+	protected void endResize() {
+		oldValues = null;
+	}
+
+	@Override
+	protected void moveValue(int from, int to) {
+		values[to] = values[from];
+	}
+
+	@Override
+	protected void clearValue(int slot) {
+		values[slot] = null;
+	}
+
+}
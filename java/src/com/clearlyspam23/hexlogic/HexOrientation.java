@@ -0,0 +1,94 @@
+package com.clearlyspam23.hexlogic;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * An enum representing the two ways hexagons can be drawn, for use with HexLayout.
+ * 
+ * pointy hexagons have a corner at the top, so east and west are straight across, and rows of hexagons run horizontally.
+ * flat hexagons have an edge at the top, and are the same as pointy hexagons turned 30 degrees clockwise, so east points down and to the right.
+ * 
+ * @author clearlyspam23
+ *
+ */
+public enum HexOrientation {
+	
+	pointy((float) Math.sqrt(3), (float) Math.sqrt(3)/2, 0f, 1.5f, 0.5f), flat(1.5f, 0f, (float) Math.sqrt(3)/2, (float) Math.sqrt(3), 0f);
+	
+	private final float q0;
+	private final float r0;
+	private final float q1;
+	private final float r1;
+	private final float startAngle;
+	
+	private HexOrientation(float q0, float r0, float q1, float r1, float startAngle){
+		this.q0 = q0;
+		this.r0 = r0;
+		this.q1 = q1;
+		this.r1 = r1;
+		this.startAngle = startAngle;
+	}
+	
+	/**
+	 * gets the horizontal pixel offset of moving 1 hexagon along the x axis, for hexagons of size 1
+	 * @return the horizontal offset of the x axis
+	 */
+	public float xAxisX(){
+		return q0;
+	}
+	
+	/**
+	 * gets the vertical pixel offset of moving 1 hexagon along the x axis, for hexagons of size 1, with pixel y growing downwards
+	 * @return the vertical offset of the x axis
+	 */
+	public float xAxisY(){
+		return q1;
+	}
+	
+	/**
+	 * gets the horizontal pixel offset of moving 1 hexagon along the y axis (northeast), for hexagons of size 1
+	 * @return the horizontal offset of the y axis
+	 */
+	public float yAxisX(){
+		return q0-r0;
+	}
+	
+	/**
+	 * gets the vertical pixel offset of moving 1 hexagon along the y axis (northeast), for hexagons of size 1, with pixel y growing downwards
+	 * @return the vertical offset of the y axis
+	 */
+	public float yAxisY(){
+		return q1-r1;
+	}
+	
+	/**
+	 * gets the angle of the first corner of a hexagon, in sixths of a full turn, clockwise from the east
+	 * @return the angle of the first corner
+	 */
+	public float getStartAngle(){
+		return startAngle;
+	}
+
+}
@@ -0,0 +1,269 @@
+package com.clearlyspam23.hexlogic;
+
+import java.util.BitSet;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * Finds the cheapest paths between tiles of a HexGrid, using A*.
+ * 
+ * Tiles are identified by their index in the grid (see HexGrid.getIndex), and all the working memory of a search is kept in a HexSearchContext,
+ * so once a context has been created, finding a path creates no garbage.
+ * A HexPathfinder itself holds no state between searches, so one pathfinder can be shared between threads, as long as each thread uses its own context.
+ * 
+ * Walls, rivers, doors and anything else that sits on the edge between two tiles rather than in a tile can be given as a HexEdgeMask.
+ * Every search steps to a tile's neighbors through its mask, so expanding a tile is a single byte read followed by a bit test for each direction.
+ * Without a mask, the same bits are worked out from the bounds of the grid (see HexEdgeMask.getBoundsMask), so no mask has to be allocated.
+ * 
+ * intended usage is something like:
+ * 
+ * HexPathfinder<Tile> pathfinder = new HexPathfinder<Tile>(grid, cost);
+ * HexSearchContext context = pathfinder.createContext();
+ * int start = grid.getIndex(startLocation);
+ * int goal = grid.getIndex(goalLocation);
+ * if(pathfinder.findPath(context, start, goal)>=0)
+ *     length = context.getPath(goal, path);
+ * 
+ * @author clearlyspam23
+ *
+ * @param <T> the Tile object stored in the grid
+ */
+public class HexPathfinder<T> {
+	
+	private final HexGrid<T> grid;
+	private final TileCost<? super T> cost;
+	private final int minCost;
+	private final HexEdgeMask edges;
+	private final int[] offsets;
+	
+	/**
+	 * constructs a new HexPathfinder over the given grid, assuming that no tile costs less than 1 to move into
+	 * @param grid the grid to find paths over
+	 * @param cost the cost of moving into each tile
+	 */
+	public HexPathfinder(HexGrid<T> grid, TileCost<? super T> cost){
+		this(grid, cost, 1);
+	}
+	
+	/**
+	 * constructs a new HexPathfinder over the given grid
+	 * the minimum cost is used to estimate the remaining cost to the goal, so it must be no more than the cost of moving into any tile, or paths may not be the cheapest.
+	 * a minimum cost of 0 is always safe, but searches more tiles.
+	 * @param grid the grid to find paths over
+	 * @param cost the cost of moving into each tile
+	 * @param minCost the lowest cost of moving into any tile
+	 */
+	public HexPathfinder(HexGrid<T> grid, TileCost<? super T> cost, int minCost){
+		this(grid, cost, minCost, null);
+	}
+	
+	/**
+	 * constructs a new HexPathfinder over the given grid, which can only cross the edges between tiles that are open in the given mask.
+	 * the mask is read during each search, so edges can be opened and closed between searches without making a new pathfinder
+	 * @param grid the grid to find paths over
+	 * @param cost the cost of moving into each tile
+	 * @param minCost the lowest cost of moving into any tile
+	 * @param edges the edges that can be crossed, with the same dimensions as the grid, or null if every edge between two tiles can be crossed
+	 */
+	public HexPathfinder(HexGrid<T> grid, TileCost<? super T> cost, int minCost, HexEdgeMask edges){
+		if(edges!=null&&(edges.getWidth()!=grid.getWidth()||edges.getHeight()!=grid.getHeight()))
+			throw new IllegalArgumentException("cannot use a " + edges.getWidth() + "x" + edges.getHeight() + " edge mask with a " 
+					+ grid.getWidth() + "x" + grid.getHeight() + " grid");
+		this.grid = grid;
+		this.cost = cost;
+		this.minCost = minCost;
+		this.edges = edges;
+		offsets = HexEdgeMask.getNeighborOffsets(grid.getWidth());
+	}
+	
+	/**
+	 * creates a new HexSearchContext big enough to search this pathfinder's grid
+	 * @return a new HexSearchContext
+	 */
+	public HexSearchContext createContext(){
+		return new HexSearchContext(grid.getSize());
+	}
+	
+	/**
+	 * finds the cheapest path between the given HexLocations
+	 * @param context the context to search with, which will hold the path afterwards
+	 * @param start the location to start from
+	 * @param goal the location to find a path to
+	 * @return the total cost of the path, or -1 if there is no path
+	 */
+	public int findPath(HexSearchContext context, HexLocation start, HexLocation goal){
+		int startIndex = grid.getIndex(start);
+		int goalIndex = grid.getIndex(goal);
+		if(startIndex<0||goalIndex<0)
+			return -1;
+		return findPath(context, startIndex, goalIndex);
+	}
+	
+	/**
+	 * finds the cheapest path between the tiles with the given indices
+	 * the cost of a path is the sum of the costs of every tile moved into, so the start tile's cost is never counted.
+	 * afterwards, the path can be fetched with context.getPath(goal, out)
+	 * @param context the context to search with, which will hold the path afterwards
+	 * @param start the index of the tile to start from
+	 * @param goal the index of the tile to find a path to
+	 * @return the total cost of the path, or -1 if there is no path
+	 */
+	public int findPath(HexSearchContext context, int start, int goal){
+		int width = grid.getWidth();
+		int height = grid.getHeight();
+		byte[] masks = edges!=null ? edges.getData() : null;
+		int goalY = goal/width;
+		int goalX = goal%width - goalY/2;
+		IntMinHeap open = context.open;
+		context.begin();
+		context.reach(start, 0, -1);
+		open.push(start, 0);
+		while(!open.isEmpty()){
+			int current = open.pop();
+			int currentCost = context.getCost(current);
+			if(current==goal)
+				return currentCost;
+			int y = current/width;
+			int mask = masks!=null ? masks[current] : HexEdgeMask.getBoundsMask(current - y*width, y, width, height);
+			for(int d = 0; d < 6; d++){
+				if((mask & (1<<d))==0)
+					continue;
+				HexDirection dir = HexDirection.get(d);
+				int neighbor = current + offsets[(y & 1)*6 + d];
+				int neighborY = y + dir.offsetY();
+				int neighborX = neighbor - neighborY*width;
+				boolean reached = context.isReached(neighbor);
+				if(reached&&!open.contains(neighbor))
+					continue;
+				int c = cost.getCost(grid.getAtRawLocation(neighborX, neighborY));
+				if(c<0)
+					continue;
+				int newCost = currentCost + c;
+				if(reached&&newCost>=context.getCost(neighbor))
+					continue;
+				context.reach(neighbor, newCost, current);
+				int dx = neighborX - neighborY/2 - goalX;
+				int dy = neighborY - goalY;
+				int distance = (Math.abs(dx) + Math.abs(dy) + Math.abs(dx+dy))/2;
+				open.push(neighbor, newCost + distance*minCost);
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * finds every tile that can be reached from the given HexLocation without spending more than the given budget
+	 * @param context the context to search with
+	 * @param start the location to start from
+	 * @param budget the most that can be spent moving
+	 * @param out the BitSet to store the result in, or null
+	 * @return the number of tiles that can be reached, or 0 if the start is not in the grid
+	 */
+	public int findReachable(HexSearchContext context, HexLocation start, int budget, BitSet out){
+		int startIndex = grid.getIndex(start);
+		if(startIndex<0){
+			if(out!=null)
+				out.clear();
+			return 0;
+		}
+		return findReachable(context, startIndex, budget, out);
+	}
+	
+	/**
+	 * finds every tile that can be reached from the tile with the given index without spending more than the given budget, using Dijkstra's algorithm.
+	 * the start tile is always reachable.
+	 * 
+	 * if out is not null, it is cleared, and then the bit of each reachable tile's index is set.
+	 * the reachable tiles can also be listed in order of cost with context.getSettled(i), and context.getCost(index) and context.getParent(index)
+	 * give the cost of reaching each one, and the tile it is reached from.
+	 * @param context the context to search with
+	 * @param start the index of the tile to start from
+	 * @param budget the most that can be spent moving
+	 * @param out the BitSet to store the result in, or null
+	 * @return the number of tiles that can be reached
+	 */
+	public int findReachable(HexSearchContext context, int start, int budget, BitSet out){
+		int width = grid.getWidth();
+		int height = grid.getHeight();
+		byte[] masks = edges!=null ? edges.getData() : null;
+		IntMinHeap open = context.open;
+		if(out!=null)
+			out.clear();
+		context.begin();
+		context.reach(start, 0, -1);
+		open.push(start, 0);
+		while(!open.isEmpty()){
+			int current = open.pop();
+			int currentCost = context.getCost(current);
+			context.settle(current);
+			if(out!=null)
+				out.set(current);
+			int y = current/width;
+			int mask = masks!=null ? masks[current] : HexEdgeMask.getBoundsMask(current - y*width, y, width, height);
+			for(int d = 0; d < 6; d++){
+				if((mask & (1<<d))==0)
+					continue;
+				HexDirection dir = HexDirection.get(d);
+				int neighbor = current + offsets[(y & 1)*6 + d];
+				int neighborY = y + dir.offsetY();
+				int neighborX = neighbor - neighborY*width;
+				boolean reached = context.isReached(neighbor);
+				if(reached&&!open.contains(neighbor))
+					continue;
+				int c = cost.getCost(grid.getAtRawLocation(neighborX, neighborY));
+				if(c<0)
+					continue;
+				int newCost = currentCost + c;
+				if(newCost>budget||(reached&&newCost>=context.getCost(neighbor)))
+					continue;
+				context.reach(neighbor, newCost, current);
+				open.push(neighbor, newCost);
+			}
+		}
+		return context.getSettledCount();
+	}
+	
+	/**
+	 * @return the grid this pathfinder searches over
+	 */
+	public HexGrid<T> getGrid(){
+		return grid;
+	}
+	
+	/**
+	 * @return the cost of moving into each tile
+	 */
+	public TileCost<? super T> getCost(){
+		return cost;
+	}
+	
+	/**
+	 * @return the edges this pathfinder can cross, or null if it can cross every edge between two tiles
+	 */
+	public HexEdgeMask getEdges(){
+		return edges;
+	}
+
+}
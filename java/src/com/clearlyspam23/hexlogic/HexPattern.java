@@ -0,0 +1,196 @@
+package com.clearlyspam23.hexlogic;
+
+import java.util.Arrays;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * A shape of hexagons, each of which must have a certain key, for searching a HexGrid with a HexPatternMatcher (such as room templates, formations or resource clusters).
+ * 
+ * Each hexagon is given as an offset from the origin of the pattern, in the same axial coordinates as HexLocation, along with the key (see TileKey) 
+ * the tile under it must have. Hexagons that are not part of the pattern match any tile. 
+ * The origin itself does not need to be part of the pattern, it is only the point the pattern is rotated around, and the point matches are reported at, 
+ * so it must still land on a tile of the grid for a match to be found.
+ * 
+ * @author clearlyspam23
+ *
+ */
+public class HexPattern {
+	
+	private int[] xs;
+	private int[] ys;
+	private int[] keys;
+	private int size;
+	
+	/**
+	 * constructs a new, empty, HexPattern
+	 */
+	public HexPattern(){
+		xs = new int[8];
+		ys = new int[8];
+		keys = new int[8];
+	}
+	
+	/**
+	 * constructs a new HexPattern as a copy of the given pattern
+	 * @param other the pattern to copy
+	 */
+	public HexPattern(HexPattern other){
+		xs = other.xs.clone();
+		ys = other.ys.clone();
+		keys = other.keys.clone();
+		size = other.size;
+	}
+	
+	/**
+	 * adds a hexagon to this pattern, or changes the key of the hexagon if it is already part of this pattern
+	 * @param x the horizontal component of the hexagon's offset from the origin
+	 * @param y the diagonal component of the hexagon's offset from the origin
+	 * @param key the key the tile under the hexagon must have
+	 * @return this HexPattern for chaining
+	 */
+	public HexPattern add(int x, int y, int key){
+		for(int i = 0; i < size; i++){
+			if(xs[i]==x&&ys[i]==y){
+				keys[i] = key;
+				return this;
+			}
+		}
+		if(size==xs.length){
+			xs = Arrays.copyOf(xs, size*2);
+			ys = Arrays.copyOf(ys, size*2);
+			keys = Arrays.copyOf(keys, size*2);
+		}
+		xs[size] = x;
+		ys[size] = y;
+		keys[size] = key;
+		size++;
+		return this;
+	}
+	
+	/**
+	 * adds a hexagon to this pattern, or changes the key of the hexagon if it is already part of this pattern
+	 * @param location the hexagon's offset from the origin
+	 * @param key the key the tile under the hexagon must have
+	 * @return this HexPattern for chaining
+	 */
+	public HexPattern add(HexLocation location, int key){
+		return add(location.x(), location.y(), key);
+	}
+	
+	/**
+	 * @return the number of hexagons in this pattern
+	 */
+	public int getSize(){
+		return size;
+	}
+	
+	/**
+	 * gets the horizontal component of the offset of the given hexagon
+	 * @param i the number of the hexagon, between 0 and getSize()-1
+	 * @return the horizontal component of its offset from the origin
+	 */
+	public int getX(int i){
+		return xs[i];
+	}
+	
+	/**
+	 * gets the diagonal component of the offset of the given hexagon
+	 * @param i the number of the hexagon, between 0 and getSize()-1
+	 * @return the diagonal component of its offset from the origin
+	 */
+	public int getY(int i){
+		return ys[i];
+	}
+	
+	/**
+	 * gets the key the tile under the given hexagon must have
+	 * @param i the number of the hexagon, between 0 and getSize()-1
+	 * @return the key of that hexagon
+	 */
+	public int getKey(int i){
+		return keys[i];
+	}
+	
+	/**
+	 * creates a copy of this pattern rotated around the origin, 60 degrees for each turn, 
+	 * in the order of HexDirection (so 1 turn moves a hexagon to the east of the origin to the southeast of it)
+	 * @param turns the number of turns to rotate by, which may be negative
+	 * @return the rotated pattern
+	 */
+	public HexPattern rotate(int turns){
+		turns = Math.floorMod(turns, 6);
+		HexPattern ans = new HexPattern(this);
+		for(int t = 0; t < turns; t++){
+			for(int i = 0; i < size; i++){
+				int x = ans.xs[i];
+				ans.xs[i] = x + ans.ys[i];
+				ans.ys[i] = -x;
+			}
+		}
+		return ans;
+	}
+	
+	/**
+	 * creates a copy of this pattern mirrored across the line running east to west through the origin, 
+	 * so that hexagons to the northeast of the origin move to the southeast of it
+	 * @return the mirrored pattern
+	 */
+	public HexPattern mirror(){
+		HexPattern ans = new HexPattern(this);
+		for(int i = 0; i < size; i++){
+			ans.xs[i] = xs[i] + ys[i];
+			ans.ys[i] = -ys[i];
+		}
+		return ans;
+	}
+	
+	/**
+	 * checks whether the given pattern holds exactly the same hexagons with the same keys as this one, in any order
+	 * @param other the pattern to compare with
+	 * @return whether or not the two patterns are the same
+	 */
+	public boolean isSameShape(HexPattern other){
+		return size==other.size&&Arrays.equals(getSorted(), other.getSorted());
+	}
+	
+	/**
+	 * creates and returns a copy of this HexPattern
+	 * @return a copy of this HexPattern
+	 */
+	public HexPattern copy(){
+		return new HexPattern(this);
+	}
+	
+	//each hexagon as its offset packed into the upper half of a long, and its key in the lower half, sorted so that the order they were added in does not matter
+	private long[] getSorted(){
+		long[] ans = new long[size];
+		for(int i = 0; i < size; i++)
+			ans[i] = ((long)PackedHex.packInt(xs[i], ys[i])<<32) | (keys[i] & 0xFFFFFFFFL);
+		Arrays.sort(ans);
+		return ans;
+	}
+
+}
@@ -0,0 +1,501 @@
+package com.clearlyspam23.hexlogic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * Finds every place in a HexGrid matching any of a set of HexPatterns, in any of their 6 rotations and their mirror images.
+ * 
+ * Every tile is classified with a TileKey, and each row of the grid is indexed with prefix polynomial hashes of its keys, 
+ * so the hash of any run of tiles along a row can be found in constant time.
+ * Each pattern is split into runs of hexagons along the rows of the grid (segments), once for every distinct rotation and mirror image, 
+ * and once more for each of the two ways its rows can line up with the grid's rows.
+ * A search slides a window the length of each pattern's longest segment along every row, looking its hash up amongst every pattern's longest segment,
+ * and only where one is found are the pattern's other segments hashed and compared. Hashes are 64 bit, and wrap on overflow, 
+ * so every match found by hash is then checked tile by tile, and a collision can never be reported as a match.
+ * This makes finding every match take time close to linear in the size of the grid, however many patterns and hexagons are being searched for.
+ * 
+ * When tiles change, pass each one to tileChanged (the dirty tiles of a HexChangeTracker work well for this). 
+ * Only the rows holding changed tiles are indexed again, which happens lazily on the next search.
+ * findMatchesTouching finds only the matches that cover a given tile, for checking rules after a change without searching the whole grid.
+ * 
+ * intended usage is something like:
+ * 
+ * HexPattern room = new HexPattern().add(0, 0, FLOOR).add(1, 0, FLOOR).add(0, 1, DOOR);
+ * HexPatternMatcher<Tile> matcher = new HexPatternMatcher<Tile>(grid, terrainKey);
+ * int roomId = matcher.addPattern(room);
+ * matcher.findMatches(visitor);
+ * 
+ * A matcher is not thread safe, since even searching may index changed rows.
+ * 
+ * @author clearlyspam23
+ *
+ * @param <T> the Tile object stored in the grid
+ */
+public class HexPatternMatcher<T> {
+	
+	/**
+	 * the number of variants of each pattern: 6 rotations, and 6 rotations of its mirror image
+	 */
+	public static final int VARIANT_COUNT = 12;
+	
+	private static final long BASE = 0x9E3779B97F4A7C15L;
+	
+	private final HexGrid<T> grid;
+	private final TileKey<? super T> key;
+	private final int width;
+	private final int height;
+	private final int[] keys;
+	private final long[] prefixes;
+	private final long[] powers;
+	private final BitSet dirtyRows;
+	private final List<HexPattern> patterns;
+	private final List<int[]> variants;
+	private final List<Layout> layouts;
+	private int[] lengths;
+	private long[][] firstHashes;
+	private Layout[][] firstLayouts;
+	
+	/**
+	 * constructs a new HexPatternMatcher over the given grid, with no patterns
+	 * @param grid the grid to search
+	 * @param key classifies each tile, for comparing with the keys of each pattern's hexagons
+	 */
+	public HexPatternMatcher(HexGrid<T> grid, TileKey<? super T> key){
+		this.grid = grid;
+		this.key = key;
+		width = grid.getWidth();
+		height = grid.getHeight();
+		keys = new int[width*height];
+		prefixes = new long[(width+1)*height];
+		powers = new long[width+1];
+		powers[0] = 1;
+		for(int i = 1; i <= width; i++)
+			powers[i] = powers[i-1]*BASE;
+		dirtyRows = new BitSet(height);
+		dirtyRows.set(0, height);
+		patterns = new ArrayList<HexPattern>();
+		variants = new ArrayList<int[]>();
+		layouts = new ArrayList<Layout>();
+	}
+	
+	/**
+	 * adds a pattern to search for, in all of its rotations and mirror images
+	 * @param pattern the pattern to search for, which must have at least 1 hexagon
+	 * @return the id of the pattern, which is given to the visitor with each of its matches
+	 */
+	public int addPattern(HexPattern pattern){
+		return addPattern(pattern, true, true);
+	}
+	
+	/**
+	 * adds a pattern to search for. Rotations or mirror images that are the same as an earlier variant are left out, so each match is only found once
+	 * @param pattern the pattern to search for, which must have at least 1 hexagon
+	 * @param rotate whether or not to search for each rotation of the pattern
+	 * @param mirror whether or not to search for the mirror image of the pattern
+	 * @return the id of the pattern, which is given to the visitor with each of its matches
+	 */
+	public int addPattern(HexPattern pattern, boolean rotate, boolean mirror){
+		if(pattern.getSize()==0)
+			throw new IllegalArgumentException("cannot search for an empty pattern");
+		int id = patterns.size();
+		pattern = pattern.copy();
+		List<HexPattern> distinct = new ArrayList<HexPattern>();
+		int[] codes = new int[VARIANT_COUNT];
+		int count = 0;
+		for(int v = 0; v < VARIANT_COUNT; v++){
+			if((!rotate&&getRotation(v)!=0)||(!mirror&&isMirrored(v)))
+				continue;
+			HexPattern variant = getVariant(pattern, v);
+			boolean repeated = false;
+			for(HexPattern other : distinct)
+				repeated|=other.isSameShape(variant);
+			if(repeated)
+				continue;
+			distinct.add(variant);
+			codes[count++] = v;
+			for(int parity = 0; parity < 2; parity++)
+				layouts.add(new Layout(variant, id, v, parity));
+		}
+		patterns.add(pattern);
+		variants.add(Arrays.copyOf(codes, count));
+		firstHashes = null;
+		return id;
+	}
+	
+	/**
+	 * gets the given variant of a pattern
+	 * @param pattern the pattern
+	 * @param variant the variant, between 0 and VARIANT_COUNT-1
+	 * @return the pattern mirrored if isMirrored(variant), and then rotated by getRotation(variant) turns
+	 */
+	public static HexPattern getVariant(HexPattern pattern, int variant){
+		if(isMirrored(variant))
+			pattern = pattern.mirror();
+		return pattern.rotate(getRotation(variant));
+	}
+	
+	/**
+	 * gets the number of turns a variant is rotated by (see HexPattern.rotate)
+	 * @param variant the variant
+	 * @return the number of turns, between 0 and 5
+	 */
+	public static int getRotation(int variant){
+		return variant%6;
+	}
+	
+	/**
+	 * checks whether a variant is a mirror image of the pattern (see HexPattern.mirror)
+	 * @param variant the variant
+	 * @return whether or not the variant is mirrored
+	 */
+	public static boolean isMirrored(int variant){
+		return variant>=6;
+	}
+	
+	/**
+	 * gets the pattern with the given id, as it was added. Changes made to the pattern have no effect on this matcher
+	 * @param pattern the id of the pattern
+	 * @return the pattern with that id
+	 */
+	public HexPattern getPattern(int pattern){
+		return patterns.get(pattern);
+	}
+	
+	/**
+	 * gets the variants searched for of the pattern with the given id, which leaves out any that are the same as an earlier variant
+	 * @param pattern the id of the pattern
+	 * @return the variants of that pattern, in increasing order
+	 */
+	public int[] getVariants(int pattern){
+		return variants.get(pattern).clone();
+	}
+	
+	/**
+	 * @return the number of patterns searched for
+	 */
+	public int getPatternCount(){
+		return patterns.size();
+	}
+	
+	/**
+	 * records that the tile with the given index has changed, so that its row is indexed again before the next search
+	 * @param index the index of the tile
+	 */
+	public void tileChanged(int index){
+		dirtyRows.set(index/width);
+	}
+	
+	/**
+	 * records that the tile at the given HexLocation has changed
+	 * @param location the location of the tile
+	 */
+	public void tileChanged(HexLocation location){
+		tileChanged(grid.getIndex(location));
+	}
+	
+	/**
+	 * records that every tile has changed, so that the whole grid is indexed again before the next search
+	 */
+	public void rebuild(){
+		dirtyRows.set(0, height);
+	}
+	
+	/**
+	 * finds every match of every pattern in the whole grid, in no particular order
+	 * @param visitor receives each match, and can stop the search early
+	 * @return the number of matches found, including the one that stopped the search
+	 */
+	public int findMatches(HexMatchVisitor visitor){
+		update();
+		int found = 0;
+		for(int g = 0; g < lengths.length; g++){
+			int length = lengths[g];
+			long[] hashes = firstHashes[g];
+			Layout[] group = firstLayouts[g];
+			for(int y = 0; y < height; y++){
+				int row = y*(width+1);
+				for(int x = 0; x + length <= width; x++){
+					long hash = prefixes[row+x+length] - prefixes[row+x]*powers[length];
+					for(int i = lowerBound(hashes, hash); i < hashes.length&&hashes[i]==hash; i++){
+						Layout layout = group[i];
+						int anchorX = x - layout.segX[layout.first];
+						int anchorY = y - layout.segY[layout.first];
+						if(anchorY>=0&&(anchorY & 1)==layout.parity&&matches(layout, anchorX, anchorY)){
+							found++;
+							if(!visitor.visit(layout.pattern, layout.variant, anchorY*width + anchorX))
+								return found;
+						}
+					}
+				}
+			}
+		}
+		return found;
+	}
+	
+	/**
+	 * finds every match of every pattern with its origin on the tile with the given index
+	 * @param index the index of the tile
+	 * @param visitor receives each match, and can stop the search early
+	 * @return the number of matches found, including the one that stopped the search
+	 */
+	public int findMatchesAt(int index, HexMatchVisitor visitor){
+		update();
+		int anchorX = index%width;
+		int anchorY = index/width;
+		int found = 0;
+		for(Layout layout : layouts){
+			if((anchorY & 1)==layout.parity&&matches(layout, anchorX, anchorY)){
+				found++;
+				if(!visitor.visit(layout.pattern, layout.variant, index))
+					return found;
+			}
+		}
+		return found;
+	}
+	
+	/**
+	 * finds every match of every pattern that has one of its hexagons on the tile with the given index, 
+	 * such as for checking which matches a change to that tile made or broke
+	 * @param index the index of the tile
+	 * @param visitor receives each match, and can stop the search early
+	 * @return the number of matches found, including the one that stopped the search
+	 */
+	public int findMatchesTouching(int index, HexMatchVisitor visitor){
+		update();
+		int x = index%width;
+		int y = index/width;
+		int found = 0;
+		for(Layout layout : layouts){
+			for(int i = 0; i < layout.cellX.length; i++){
+				int anchorX = x - layout.cellX[i];
+				int anchorY = y - layout.cellY[i];
+				if(anchorY>=0&&(anchorY & 1)==layout.parity&&matches(layout, anchorX, anchorY)){
+					found++;
+					if(!visitor.visit(layout.pattern, layout.variant, anchorY*width + anchorX))
+						return found;
+				}
+			}
+		}
+		return found;
+	}
+	
+	/**
+	 * checks whether the given variant of a pattern matches with its origin on the tile with the given index
+	 * @param index the index of the tile
+	 * @param pattern the id of the pattern
+	 * @param variant the variant of the pattern, which must be one of getVariants(pattern)
+	 * @return whether or not the pattern matches there
+	 */
+	public boolean matchesAt(int index, int pattern, int variant){
+		update();
+		int anchorX = index%width;
+		int anchorY = index/width;
+		for(Layout layout : layouts)
+			if(layout.pattern==pattern&&layout.variant==variant&&(anchorY & 1)==layout.parity)
+				return matches(layout, anchorX, anchorY);
+		return false;
+	}
+	
+	/**
+	 * @return the grid this matcher searches
+	 */
+	public HexGrid<T> getGrid(){
+		return grid;
+	}
+	
+	//indexes every changed row again, and groups the patterns by the length of their longest segment if any have been added
+	private void update(){
+		for(int y = dirtyRows.nextSetBit(0); y >= 0; y = dirtyRows.nextSetBit(y+1)){
+			int row = y*(width+1);
+			long hash = 0;
+			prefixes[row] = 0;
+			for(int x = 0; x < width; x++){
+				int k = key.getKey(grid.getAtRawLocation(x, y));
+				keys[y*width + x] = k;
+				hash = hash*BASE + mix(k);
+				prefixes[row+x+1] = hash;
+			}
+		}
+		dirtyRows.clear();
+		if(firstHashes==null)
+			group();
+	}
+	
+	private void group(){
+		List<Layout> sorted = new ArrayList<Layout>(layouts);
+		Collections.sort(sorted, new Comparator<Layout>(){
+			
+			public int compare(Layout a, Layout b){
+				int c = Integer.compare(a.segLength[a.first], b.segLength[b.first]);
+				if(c!=0)
+					return c;
+				return Long.compare(a.segHash[a.first], b.segHash[b.first]);
+			}
+			
+		});
+		int groups = 0;
+		for(int i = 0; i < sorted.size(); i++)
+			if(i==0||sorted.get(i).getFirstLength()!=sorted.get(i-1).getFirstLength())
+				groups++;
+		lengths = new int[groups];
+		firstHashes = new long[groups][];
+		firstLayouts = new Layout[groups][];
+		int start = 0;
+		for(int g = 0; g < groups; g++){
+			int length = sorted.get(start).getFirstLength();
+			int end = start;
+			while(end<sorted.size()&&sorted.get(end).getFirstLength()==length)
+				end++;
+			lengths[g] = length;
+			firstHashes[g] = new long[end-start];
+			firstLayouts[g] = new Layout[end-start];
+			for(int i = start; i < end; i++){
+				Layout layout = sorted.get(i);
+				firstHashes[g][i-start] = layout.segHash[layout.first];
+				firstLayouts[g][i-start] = layout;
+			}
+			start = end;
+		}
+	}
+	
+	//compares the segments by hash first, since that rules out most places cheaply, and then every hexagon, in case of a collision
+	private boolean matches(Layout layout, int anchorX, int anchorY){
+		if(anchorX+layout.minX<0||anchorX+layout.maxX>=width||anchorY+layout.minY<0||anchorY+layout.maxY>=height)
+			return false;
+		for(int s = 0; s < layout.segHash.length; s++){
+			int row = (anchorY + layout.segY[s])*(width+1);
+			int x = anchorX + layout.segX[s];
+			int length = layout.segLength[s];
+			if(prefixes[row+x+length] - prefixes[row+x]*powers[length]!=layout.segHash[s])
+				return false;
+		}
+		for(int i = 0; i < layout.cellKey.length; i++)
+			if(keys[(anchorY + layout.cellY[i])*width + anchorX + layout.cellX[i]]!=layout.cellKey[i])
+				return false;
+		return true;
+	}
+	
+	private static int lowerBound(long[] hashes, long hash){
+		int low = 0;
+		int high = hashes.length;
+		while(low<high){
+			int mid = (low+high)>>>1;
+			if(hashes[mid]<hash)
+				low = mid+1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+	
+	private static long mix(int k){
+		long h = (k ^ 0x5851F42D4C957F2DL)*0xC2B2AE3D27D4EB4FL;
+		return h ^ (h>>>29);
+	}
+	
+	//one variant of a pattern, laid out in array space for anchors on rows of the given parity, and split into segments along each row
+	private static class Layout {
+		
+		private final int pattern;
+		private final int variant;
+		private final int parity;
+		private final int[] cellX;
+		private final int[] cellY;
+		private final int[] cellKey;
+		private final int[] segX;
+		private final int[] segY;
+		private final int[] segLength;
+		private final long[] segHash;
+		private int first;
+		//the bounds include the origin, since matches are reported by the tile the origin lands on
+		private int minX;
+		private int maxX;
+		private int minY;
+		private int maxY;
+		
+		public Layout(HexPattern p, int pattern, int variant, int parity){
+			this.pattern = pattern;
+			this.variant = variant;
+			this.parity = parity;
+			int size = p.getSize();
+			cellX = new int[size];
+			cellY = new int[size];
+			cellKey = new int[size];
+			//sort the hexagons by their position in array space, row by row, so that runs along a row sit next to each other
+			for(int i = 0; i < size; i++){
+				int y = p.getY(i);
+				int x = p.getX(i) + Math.floorDiv(parity + y, 2);
+				int j = i;
+				while(j>0&&(cellY[j-1]>y||(cellY[j-1]==y&&cellX[j-1]>x))){
+					cellX[j] = cellX[j-1];
+					cellY[j] = cellY[j-1];
+					cellKey[j] = cellKey[j-1];
+					j--;
+				}
+				cellX[j] = x;
+				cellY[j] = y;
+				cellKey[j] = p.getKey(i);
+			}
+			int segments = 0;
+			for(int i = 0; i < size; i++){
+				if(i==0||cellY[i]!=cellY[i-1]||cellX[i]!=cellX[i-1]+1)
+					segments++;
+				minX = Math.min(minX, cellX[i]);
+				maxX = Math.max(maxX, cellX[i]);
+				minY = Math.min(minY, cellY[i]);
+				maxY = Math.max(maxY, cellY[i]);
+			}
+			segX = new int[segments];
+			segY = new int[segments];
+			segLength = new int[segments];
+			segHash = new long[segments];
+			int s = -1;
+			for(int i = 0; i < size; i++){
+				if(i==0||cellY[i]!=cellY[i-1]||cellX[i]!=cellX[i-1]+1){
+					s++;
+					segX[s] = cellX[i];
+					segY[s] = cellY[i];
+				}
+				segLength[s]++;
+				segHash[s] = segHash[s]*BASE + mix(cellKey[i]);
+				if(segLength[s]>segLength[first])
+					first = s;
+			}
+		}
+		
+		public int getFirstLength(){
+			return segLength[first];
+		}
+		
+	}
+
+}
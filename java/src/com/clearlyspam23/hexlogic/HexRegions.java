@@ -0,0 +1,365 @@
+package com.clearlyspam23.hexlogic;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * Labels the connected regions of a HexGrid, such as islands, territories or enclosed areas, and keeps the labels up to date as tiles change.
+ * 
+ * Every tile is classified with a TileKey, and neighboring tiles with the same key belong to the same region. 
+ * Tiles with a negative key (water, when finding islands) belong to no region at all. 
+ * A HexEdgeMask can also be given, in which case two neighbors are only connected if the edge between them is open.
+ * 
+ * Regions are kept in a union-find structure, with path compression and union by size, so asking whether two tiles are in the same region
+ * takes close to constant time. Each region also keeps its tiles in a circular list, which is how a region can be split again:
+ * when a tile changes, only the region it used to belong to is taken apart and joined back together, and then the tile is joined to its new neighbors.
+ * A tile becoming part of a region (or joining two regions) is only a few unions, but a tile leaving a region costs time proportional to the size of that region.
+ * 
+ * Region ids are the index of one tile in the region, and may change whenever any tile does, so they should only be kept until the next change.
+ * 
+ * intended usage is something like:
+ * 
+ * HexRegions<Tile> islands = new HexRegions<Tile>(grid, landKey);
+ * ...
+ * grid.set(location, tile);
+ * islands.tileChanged(location);
+ * if(islands.isSameRegion(grid.getIndex(a), grid.getIndex(b)))
+ *     ...
+ * 
+ * HexRegions is not thread safe, since even finding a region compresses paths.
+ * 
+ * @author clearlyspam23
+ *
+ * @param <T> the Tile object stored in the grid
+ */
+public class HexRegions<T> {
+	
+	/**
+	 * the region given to tiles that belong to no region
+	 */
+	public static final int NO_REGION = -1;
+	
+	private final HexGrid<T> grid;
+	private final TileKey<? super T> key;
+	private final HexEdgeMask edges;
+	private final int width;
+	private final int height;
+	private final int[] offsets;
+	private final int[] keys;
+	private final int[] parents;
+	private final int[] sizes;
+	private final int[] next;
+	private final int[] members;
+	private int regionCount;
+	
+	/**
+	 * constructs a new HexRegions over the given grid, labeling every region in it
+	 * @param grid the grid to label
+	 * @param key classifies each tile, with neighbors of the same key in the same region, and negative keys in no region
+	 */
+	public HexRegions(HexGrid<T> grid, TileKey<? super T> key){
+		this(grid, key, null);
+	}
+	
+	/**
+	 * constructs a new HexRegions over the given grid, labeling every region in it, where neighbors are only connected across open edges of the given mask
+	 * after opening or closing an edge, pass it to edgeChanged
+	 * @param grid the grid to label
+	 * @param key classifies each tile, with neighbors of the same key in the same region, and negative keys in no region
+	 * @param edges the edges that connect tiles, with the same dimensions as the grid, or null if every edge between two tiles connects them
+	 */
+	public HexRegions(HexGrid<T> grid, TileKey<? super T> key, HexEdgeMask edges){
+		if(edges!=null&&(edges.getWidth()!=grid.getWidth()||edges.getHeight()!=grid.getHeight()))
+			throw new IllegalArgumentException("cannot use a " + edges.getWidth() + "x" + edges.getHeight() + " edge mask with a " 
+					+ grid.getWidth() + "x" + grid.getHeight() + " grid");
+		this.grid = grid;
+		this.key = key;
+		this.edges = edges;
+		width = grid.getWidth();
+		height = grid.getHeight();
+		offsets = HexEdgeMask.getNeighborOffsets(width);
+		int size = grid.getSize();
+		keys = new int[size];
+		parents = new int[size];
+		sizes = new int[size];
+		next = new int[size];
+		members = new int[size];
+		rebuild();
+	}
+	
+	/**
+	 * labels every region from scratch, reading the key of every tile again
+	 */
+	public void rebuild(){
+		regionCount = 0;
+		for(int i = 0; i < keys.length; i++){
+			keys[i] = key.getKey(grid.getAtIndex(i));
+			reset(i);
+		}
+		//each edge only needs to be joined from one side, so only look east, southeast and southwest
+		for(int i = 0; i < keys.length; i++){
+			if(keys[i]<0)
+				continue;
+			int y = i/width;
+			int mask = getMask(i, y);
+			for(int d = 0; d < 3; d++){
+				if((mask & (1<<d))==0)
+					continue;
+				int neighbor = i + offsets[(y & 1)*6 + d];
+				if(keys[neighbor]==keys[i])
+					union(i, neighbor);
+			}
+		}
+	}
+	
+	/**
+	 * brings the labels up to date with a change to the tile with the given index. This should be called after every tile set in the grid
+	 * @param index the index of the tile
+	 */
+	public void tileChanged(int index){
+		int newKey = key.getKey(grid.getAtIndex(index));
+		int oldKey = keys[index];
+		if(newKey==oldKey)
+			return;
+		if(oldKey>=0&&sizes[find(index)]>1){
+			//the tile may have been holding its region together, so take the region apart, and join it back together without the tile
+			int count = split(index);
+			keys[index] = newKey;
+			for(int i = 0; i < count; i++)
+				if(members[i]!=index)
+					join(members[i]);
+		}
+		else{
+			keys[index] = newKey;
+		}
+		if(oldKey>=0)
+			regionCount--;
+		reset(index);
+		join(index);
+	}
+	
+	/**
+	 * brings the labels up to date with a change to the tile at the given HexLocation
+	 * @param location the location of the tile
+	 */
+	public void tileChanged(HexLocation location){
+		tileChanged(grid.getIndex(location));
+	}
+	
+	/**
+	 * brings the labels up to date with the edge in the given direction from the tile with the given index being opened or closed in the edge mask.
+	 * this does nothing if there is no edge mask
+	 * @param index the index of the tile
+	 * @param direction the direction of the edge
+	 */
+	public void edgeChanged(int index, HexDirection direction){
+		int neighbor = grid.getNeighborIndex(index, direction);
+		if(edges==null||neighbor<0||keys[index]<0||keys[index]!=keys[neighbor])
+			return;
+		if(edges.isOpen(index, direction.ordinal())){
+			union(index, neighbor);
+		}
+		else{
+			//the edge may have been holding the region together
+			int count = split(index);
+			for(int i = 0; i < count; i++)
+				join(members[i]);
+		}
+	}
+	
+	/**
+	 * gets the region the tile with the given index belongs to
+	 * @param index the index of the tile
+	 * @return the id of its region, or NO_REGION if the tile has a negative key
+	 */
+	public int getRegion(int index){
+		if(keys[index]<0)
+			return NO_REGION;
+		return find(index);
+	}
+	
+	/**
+	 * gets the region the tile at the given HexLocation belongs to
+	 * @param location the location of the tile
+	 * @return the id of its region, or NO_REGION if the tile has a negative key or is not in the grid
+	 */
+	public int getRegion(HexLocation location){
+		int index = grid.getIndex(location);
+		if(index<0)
+			return NO_REGION;
+		return getRegion(index);
+	}
+	
+	/**
+	 * checks whether the tiles with the given indices belong to the same region
+	 * @param a the index of the first tile
+	 * @param b the index of the second tile
+	 * @return whether or not they are in the same region, which is always false if either belongs to no region
+	 */
+	public boolean isSameRegion(int a, int b){
+		return keys[a]>=0&&find(a)==find(b);
+	}
+	
+	/**
+	 * checks whether the tiles at the given HexLocations belong to the same region
+	 * @param a the location of the first tile
+	 * @param b the location of the second tile
+	 * @return whether or not they are in the same region
+	 */
+	public boolean isSameRegion(HexLocation a, HexLocation b){
+		int indexA = grid.getIndex(a);
+		int indexB = grid.getIndex(b);
+		return indexA>=0&&indexB>=0&&isSameRegion(indexA, indexB);
+	}
+	
+	/**
+	 * gets the number of tiles in the region the tile with the given index belongs to
+	 * @param index the index of the tile
+	 * @return the size of its region, or 0 if it belongs to no region
+	 */
+	public int getRegionSize(int index){
+		if(keys[index]<0)
+			return 0;
+		return sizes[find(index)];
+	}
+	
+	/**
+	 * lists every tile in the region the tile with the given index belongs to, in no particular order
+	 * if the region is bigger than the room left in the buffer, only some of its tiles are stored
+	 * @param index the index of the tile
+	 * @param out the buffer to store the index of each tile in
+	 * @param offset the position in out to store the first tile
+	 * @return the number of tiles stored
+	 */
+	public int getRegionTiles(int index, int[] out, int offset){
+		if(keys[index]<0)
+			return 0;
+		int count = 0;
+		int i = index;
+		do{
+			if(offset+count>=out.length)
+				break;
+			out[offset+count++] = i;
+			i = next[i];
+		}while(i!=index);
+		return count;
+	}
+	
+	/**
+	 * @return the number of regions in the grid
+	 */
+	public int getRegionCount(){
+		return regionCount;
+	}
+	
+	/**
+	 * gets the key of the tile with the given index, as it was when the labels were last brought up to date
+	 * @param index the index of the tile
+	 * @return the key of that tile
+	 */
+	public int getKey(int index){
+		return keys[index];
+	}
+	
+	/**
+	 * @return the grid being labeled
+	 */
+	public HexGrid<T> getGrid(){
+		return grid;
+	}
+	
+	private int find(int index){
+		//path halving, pointing every other tile along the way at its grandparent
+		while(parents[index]!=index){
+			parents[index] = parents[parents[index]];
+			index = parents[index];
+		}
+		return index;
+	}
+	
+	private void union(int a, int b){
+		a = find(a);
+		b = find(b);
+		if(a==b)
+			return;
+		if(sizes[a]<sizes[b]){
+			int temp = a;
+			a = b;
+			b = temp;
+		}
+		parents[b] = a;
+		sizes[a]+=sizes[b];
+		//swapping the successors of two tiles in different circular lists joins the lists into one
+		int temp = next[a];
+		next[a] = next[b];
+		next[b] = temp;
+		regionCount--;
+	}
+	
+	//the tile's mask in the edge mask, or worked out from the bounds if there is no edge mask, so that no mask has to be allocated
+	private int getMask(int index, int y){
+		if(edges==null)
+			return HexEdgeMask.getBoundsMask(index - y*width, y, width, height);
+		return edges.getData()[index];
+	}
+	
+	//makes the tile a region of its own
+	private void reset(int index){
+		parents[index] = index;
+		sizes[index] = 1;
+		next[index] = index;
+		if(keys[index]>=0)
+			regionCount++;
+	}
+	
+	//joins the tile to every connected neighbor with the same key
+	private void join(int index){
+		if(keys[index]<0)
+			return;
+		int y = index/width;
+		int mask = getMask(index, y);
+		for(int d = 0; d < 6; d++){
+			if((mask & (1<<d))==0)
+				continue;
+			int neighbor = index + offsets[(y & 1)*6 + d];
+			if(keys[neighbor]==keys[index])
+				union(index, neighbor);
+		}
+	}
+	
+	//takes apart the region holding the tile, leaving each of its tiles as a region of its own, and listing them in members
+	private int split(int index){
+		int count = 0;
+		int i = index;
+		do{
+			members[count++] = i;
+			i = next[i];
+		}while(i!=index);
+		regionCount--;
+		for(int j = 0; j < count; j++)
+			reset(members[j]);
+		return count;
+	}
+
+}
@@ -0,0 +1,175 @@
+package com.clearlyspam23.hexlogic;
+
+import java.util.Arrays;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * Holds all the working memory used by searches over a HexGrid, along with the results of the last search run with it.
+ * 
+ * Everything is allocated once, when this context is created, so running many searches with the same context creates no garbage.
+ * A context is not thread safe, so each thread that searches should have its own.
+ * 
+ * @author clearlyspam23
+ *
+ */
+public class HexSearchContext {
+	
+	private int[] costs;
+	private int[] parents;
+	private int[] stamps;
+	private int stamp;
+	private int[] settled;
+	private int settledCount;
+	
+	final IntMinHeap open;
+	
+	/**
+	 * constructs a new HexSearchContext, for searching over grids with the given number of tiles
+	 * @param size the number of tiles in the grids to be searched, as given by HexGrid.getSize()
+	 */
+	public HexSearchContext(int size){
+		costs = new int[size];
+		parents = new int[size];
+		stamps = new int[size];
+		settled = new int[size];
+		open = new IntMinHeap(size);
+	}
+	
+	/**
+	 * starts a new search, forgetting the results of the last one
+	 * rather than clearing every array, each search is given a new stamp, and anything not marked with the current stamp is treated as unreached
+	 */
+	void begin(){
+		open.clear();
+		settledCount = 0;
+		if(++stamp==Integer.MAX_VALUE){
+			Arrays.fill(stamps, 0);
+			stamp = 1;
+		}
+	}
+	
+	/**
+	 * records that the tile with the given index has been reached
+	 * @param index the index of the tile
+	 * @param cost the total cost of getting to that tile
+	 * @param parent the index of the tile it was reached from, or -1 if this is where the search started
+	 */
+	void reach(int index, int cost, int parent){
+		stamps[index] = stamp;
+		costs[index] = cost;
+		parents[index] = parent;
+	}
+	
+	/**
+	 * records that the cheapest path to the tile with the given index is known, adding it to the list of settled tiles
+	 * @param index the index of the tile
+	 */
+	void settle(int index){
+		settled[settledCount++] = index;
+	}
+	
+	/**
+	 * gets the number of tiles the last search settled, meaning tiles it found the cheapest path to
+	 * for a search of everything in range (see HexPathfinder.findReachable), these are exactly the tiles in range
+	 * @return the number of settled tiles
+	 */
+	public int getSettledCount(){
+		return settledCount;
+	}
+	
+	/**
+	 * gets the index of a tile settled by the last search. Tiles are settled in order of increasing cost
+	 * @param i which settled tile to get, between 0 and getSettledCount()-1
+	 * @return the index of that tile
+	 */
+	public int getSettled(int i){
+		return settled[i];
+	}
+	
+	/**
+	 * checks if the tile with the given index was reached by the last search
+	 * @param index the index of the tile
+	 * @return whether or not that tile was reached
+	 */
+	public boolean isReached(int index){
+		return stamps[index]==stamp;
+	}
+	
+	/**
+	 * gets the lowest total cost the last search found to get to the tile with the given index
+	 * @param index the index of the tile
+	 * @return the total cost of getting to that tile, or -1 if it was not reached
+	 */
+	public int getCost(int index){
+		return stamps[index]==stamp ? costs[index] : -1;
+	}
+	
+	/**
+	 * gets the index of the tile that the last search came from to get to the tile with the given index
+	 * @param index the index of the tile
+	 * @return the index of the previous tile on the way to that tile, or -1 if it was not reached, or is where the search started
+	 */
+	public int getParent(int index){
+		return stamps[index]==stamp ? parents[index] : -1;
+	}
+	
+	/**
+	 * gets the number of tiles on the path the last search found to the tile with the given index, including the start and that tile
+	 * @param index the index of the tile at the end of the path
+	 * @return the number of tiles in the path, or 0 if that tile was not reached
+	 */
+	public int getPathLength(int index){
+		if(stamps[index]!=stamp)
+			return 0;
+		int length = 1;
+		for(int i = parents[index]; i>=0; i = parents[i])
+			length++;
+		return length;
+	}
+	
+	/**
+	 * stores the path the last search found to the tile with the given index in the given array, from the start to that tile
+	 * @param index the index of the tile at the end of the path
+	 * @param out the array to store the indices of the path in, must be at least getPathLength(index) long
+	 * @return the number of tiles in the path, or 0 if that tile was not reached
+	 */
+	public int getPath(int index, int[] out){
+		int length = getPathLength(index);
+		for(int i = length-1; i>=0; i--){
+			out[i] = index;
+			index = parents[index];
+		}
+		return length;
+	}
+	
+	/**
+	 * @return the number of tiles this context can search over
+	 */
+	public int getSize(){
+		return costs.length;
+	}
+
+}
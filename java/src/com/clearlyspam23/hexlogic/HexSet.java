@@ -0,0 +1,152 @@
+package com.clearlyspam23.hexlogic;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * A set of hex coordinates, packed into longs (see PackedHex).
+ * 
+ * The coordinates are stored in a primitive array, so adding, checking, removing and iterating create no garbage
+ * (other than when the set needs to grow). See PackedHexTable for how to iterate over the set.
+ * 
+ * @author clearlyspam23
+ *
+ */
+public class HexSet extends PackedHexTable {
+	
+	/**
+	 * constructs a new, empty HexSet
+	 */
+	public HexSet(){
+		this(16);
+	}
+	
+	/**
+	 * constructs a new, empty HexSet, with room for the given number of coordinates before it needs to grow
+	 * @param expectedSize the number of coordinates expected
+	 */
+	public HexSet(int expectedSize){
+		super(expectedSize);
+	}
+	
+	/**
+	 * adds the given coordinates to this set
+	 * @param key coordinates packed into a long
+	 * @return true if the coordinates were added, false if they were already in this set
+	 */
+	public boolean add(long key){
+		return insertSlot(key)<0;
+	}
+	
+	/**
+	 * adds the given coordinates to this set
+	 * @param x the horizontal component
+	 * @param y the diagonal component
+	 * @return true if the coordinates were added, false if they were already in this set
+	 */
+	public boolean add(int x, int y){
+		return add(PackedHex.pack(x, y));
+	}
+	
+	/**
+	 * adds the given HexLocation to this set
+	 * @param location the location to add
+	 * @return true if the location was added, false if it was already in this set
+	 */
+	public boolean add(HexLocation location){
+		return add(PackedHex.pack(location));
+	}
+	
+	/**
+	 * checks if the given coordinates are in this set
+	 * @param key coordinates packed into a long
+	 * @return whether or not the coordinates are in this set
+	 */
+	public boolean contains(long key){
+		return findSlot(key)>=0;
+	}
+	
+	/**
+	 * checks if the given coordinates are in this set
+	 * @param x the horizontal component
+	 * @param y the diagonal component
+	 * @return whether or not the coordinates are in this set
+	 */
+	public boolean contains(int x, int y){
+		return contains(PackedHex.pack(x, y));
+	}
+	
+	/**
+	 * checks if the given HexLocation is in this set
+	 * @param location the location to check
+	 * @return whether or not the location is in this set
+	 */
+	public boolean contains(HexLocation location){
+		return contains(PackedHex.pack(location));
+	}
+	
+	/**
+	 * removes the given coordinates from this set
+	 * @param key coordinates packed into a long
+	 * @return whether or not the coordinates were in this set
+	 */
+	public boolean remove(long key){
+		int slot = findSlot(key);
+		if(slot<0)
+			return false;
+		removeSlot(slot);
+		return true;
+	}
+	
+	/**
+	 * removes the given coordinates from this set
+	 * @param x the horizontal component
+	 * @param y the diagonal component
+	 * @return whether or not the coordinates were in this set
+	 */
+	public boolean remove(int x, int y){
+		return remove(PackedHex.pack(x, y));
+	}
+
+	@Override
+	protected void beginResize(int capacity) {
+	}
+
+	@Override
+	protected void resizeValue(int oldSlot, int newSlot) {
+	}
+
+	@Override
+	protected void endResize() {
+	}
+
+	@Override
+	protected void moveValue(int from, int to) {
+	}
+
+	@Override
+	protected void clearValue(int slot) {
+	}
+
+}
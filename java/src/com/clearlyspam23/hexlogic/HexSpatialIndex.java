@@ -0,0 +1,391 @@
+package com.clearlyspam23.hexlogic;
+
+import java.util.Arrays;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * An index of entities (units, items, and so on) by their location in hexagon space, for quickly finding everything within some radius, or the nearest few entities.
+ * 
+ * Entities are identified by int ids chosen by the caller (generally an index into the caller's own array of entities), and ids should be kept small, as storage grows with the largest id.
+ * Hexagon space is split into square chunks (in axial coordinates) and each chunk keeps a bucket of the entities inside it.
+ * Moving an entity only touches the bucket it leaves and the bucket it enters, so updates take constant time,
+ * and queries only look at the buckets near the area queried, so they take time based on the area, not the total number of entities.
+ * 
+ * A bucket is dropped as soon as its last entity leaves, so memory depends on the chunks in use, not every chunk ever visited, 
+ * and a few emptied buckets are kept aside to be used again, so entities moving back and forth across the edge of a chunk do not allocate.
+ * Queries store their results in caller supplied arrays, and nothing allocates except when the index grows, or runs out of spare buckets.
+ * An index is not thread safe.
+ * 
+ * @author clearlyspam23
+ *
+ */
+public class HexSpatialIndex {
+	
+	private static final int MAX_SPARES = 16;
+	
+	private final int chunkBits;
+	private final HexLongMap<Bucket> buckets = new HexLongMap<Bucket>();
+	private final Bucket[] spares = new Bucket[MAX_SPARES];
+	private int spareCount;
+	
+	private int[] xs;
+	private int[] ys;
+	private Bucket[] bucketOf;
+	private int[] slotOf;
+	private int size;
+	
+	//scratch space for nearest queries, a max heap on distance
+	private int[] heapIds = new int[8];
+	private int[] heapDistances = new int[8];
+	
+	/**
+	 * constructs a new, empty HexSpatialIndex, using chunks 16 hexagons across
+	 */
+	public HexSpatialIndex(){
+		this(4);
+	}
+	
+	/**
+	 * constructs a new, empty HexSpatialIndex, using chunks 2^chunkBits hexagons across
+	 * chunks a little larger than the usual query radius work best
+	 * @param chunkBits the power of 2 to use for the size of each chunk, between 1 and 15
+	 */
+	public HexSpatialIndex(int chunkBits){
+		if(chunkBits<1||chunkBits>15)
+			throw new IllegalArgumentException("chunkBits must be between 1 and 15, was " + chunkBits);
+		this.chunkBits = chunkBits;
+		xs = new int[16];
+		ys = new int[16];
+		bucketOf = new Bucket[16];
+		slotOf = new int[16];
+	}
+	
+	/**
+	 * adds an entity at the given coordinates, or moves it there if it is already in this index
+	 * @param id the id of the entity, which must not be negative
+	 * @param x the horizontal component of the entity's location
+	 * @param y the diagonal component of the entity's location
+	 */
+	public void put(int id, int x, int y){
+		if(id>=xs.length)
+			grow(id);
+		Bucket old = bucketOf[id];
+		long key = PackedHex.pack(x>>chunkBits, y>>chunkBits);
+		xs[id] = x;
+		ys[id] = y;
+		if(old!=null){
+			if(old.key==key)
+				return;
+			removeFromBucket(id, old);
+		}
+		else{
+			size++;
+		}
+		Bucket bucket = buckets.get(key);
+		if(bucket==null){
+			if(spareCount>0){
+				bucket = spares[--spareCount];
+				spares[spareCount] = null;
+				bucket.key = key;
+			}
+			else{
+				bucket = new Bucket(key);
+			}
+			buckets.put(key, bucket);
+		}
+		if(bucket.count==bucket.ids.length)
+			bucket.ids = Arrays.copyOf(bucket.ids, bucket.count*2);
+		bucket.ids[bucket.count] = id;
+		slotOf[id] = bucket.count++;
+		bucketOf[id] = bucket;
+	}
+	
+	/**
+	 * adds an entity at the given location, or moves it there if it is already in this index
+	 * @param id the id of the entity, which must not be negative
+	 * @param location the entity's location
+	 */
+	public void put(int id, HexLocation location){
+		put(id, location.x(), location.y());
+	}
+	
+	/**
+	 * removes an entity from this index
+	 * @param id the id of the entity
+	 * @return whether or not the entity was in this index
+	 */
+	public boolean remove(int id){
+		if(id>=xs.length||bucketOf[id]==null)
+			return false;
+		removeFromBucket(id, bucketOf[id]);
+		bucketOf[id] = null;
+		size--;
+		return true;
+	}
+	
+	/**
+	 * checks if an entity is in this index
+	 * @param id the id of the entity
+	 * @return whether or not the entity is in this index
+	 */
+	public boolean contains(int id){
+		return id<xs.length&&bucketOf[id]!=null;
+	}
+	
+	/**
+	 * @param id the id of an entity in this index
+	 * @return the horizontal component of the entity's location
+	 */
+	public int getX(int id){
+		return xs[id];
+	}
+	
+	/**
+	 * @param id the id of an entity in this index
+	 * @return the diagonal component of the entity's location
+	 */
+	public int getY(int id){
+		return ys[id];
+	}
+	
+	/**
+	 * @return the number of entities in this index
+	 */
+	public int size(){
+		return size;
+	}
+	
+	/**
+	 * finds every entity within the given distance of the given coordinates
+	 * @param x the horizontal component of the center
+	 * @param y the diagonal component of the center
+	 * @param radius the furthest distance from the center to include
+	 * @param filter only entities accepted by this filter are included, or null to include every entity
+	 * @param out the array to store the ids of the entities found in
+	 * @return the number of entities found, which stops at the length of out
+	 */
+	public int findWithin(int x, int y, int radius, EntityFilter filter, int[] out){
+		int count = 0;
+		int minChunkX = (x-radius)>>chunkBits;
+		int maxChunkX = (x+radius)>>chunkBits;
+		int minChunkY = (y-radius)>>chunkBits;
+		int maxChunkY = (y+radius)>>chunkBits;
+		for(int chunkY = minChunkY; chunkY <= maxChunkY; chunkY++){
+			for(int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++){
+				if(minDistance(chunkX, chunkY, x, y)>radius)
+					continue;
+				Bucket bucket = buckets.get(PackedHex.pack(chunkX, chunkY));
+				if(bucket==null)
+					continue;
+				for(int i = 0; i < bucket.count; i++){
+					int id = bucket.ids[i];
+					if(distance(id, x, y)<=radius&&(filter==null||filter.accept(id))){
+						out[count++] = id;
+						if(count==out.length)
+							return count;
+					}
+				}
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * finds every entity within the given distance of the given location
+	 * @param center the center of the search
+	 * @param radius the furthest distance from the center to include
+	 * @param filter only entities accepted by this filter are included, or null to include every entity
+	 * @param out the array to store the ids of the entities found in
+	 * @return the number of entities found, which stops at the length of out
+	 */
+	public int findWithin(HexLocation center, int radius, EntityFilter filter, int[] out){
+		return findWithin(center.x(), center.y(), radius, filter, out);
+	}
+	
+	/**
+	 * finds the entities nearest to the given coordinates, searching outwards one ring of chunks at a time until no closer entity can be found
+	 * @param x the horizontal component of the center
+	 * @param y the diagonal component of the center
+	 * @param k the most entities to find
+	 * @param maxRadius the furthest distance from the center to include
+	 * @param filter only entities accepted by this filter are included, or null to include every entity
+	 * @param out the array to store the ids of the entities found in, nearest first, must be at least k long
+	 * @return the number of entities found, which is k unless there are fewer than k entities within maxRadius
+	 */
+	public int findNearest(int x, int y, int k, int maxRadius, EntityFilter filter, int[] out){
+		if(k<=0)
+			return 0;
+		if(heapIds.length<k){
+			heapIds = new int[k];
+			heapDistances = new int[k];
+		}
+		int count = 0;
+		int seen = 0;
+		int chunkSize = 1<<chunkBits;
+		int centerChunkX = x>>chunkBits;
+		int centerChunkY = y>>chunkBits;
+		for(int ring = 0; seen<size; ring++){
+			//every hexagon in a chunk this many rings out is at least this far away
+			int ringDistance = ring==0 ? 0 : (ring-1)*chunkSize+1;
+			if(ringDistance>maxRadius||(count==k&&heapDistances[0]<ringDistance))
+				break;
+			for(int chunkY = centerChunkY-ring; chunkY <= centerChunkY+ring; chunkY++){
+				boolean edgeRow = chunkY==centerChunkY-ring||chunkY==centerChunkY+ring;
+				int stepX = edgeRow||ring==0 ? 1 : 2*ring;
+				for(int chunkX = centerChunkX-ring; chunkX <= centerChunkX+ring; chunkX+=stepX){
+					Bucket bucket = buckets.get(PackedHex.pack(chunkX, chunkY));
+					if(bucket==null||bucket.count==0)
+						continue;
+					seen+=bucket.count;
+					int limit = count==k ? Math.min(maxRadius, heapDistances[0]-1) : maxRadius;
+					if(minDistance(chunkX, chunkY, x, y)>limit)
+						continue;
+					for(int i = 0; i < bucket.count; i++){
+						int id = bucket.ids[i];
+						int d = distance(id, x, y);
+						if(d>maxRadius||(count==k&&d>=heapDistances[0])||(filter!=null&&!filter.accept(id)))
+							continue;
+						if(count<k)
+							heapAdd(id, d, count++);
+						else
+							heapReplaceTop(id, d, k);
+					}
+				}
+			}
+		}
+		//empty the heap from the back of out forwards, so the nearest ends up first
+		for(int n = count; n > 0; n--){
+			out[n-1] = heapIds[0];
+			heapReplaceTop(heapIds[n-1], heapDistances[n-1], n-1);
+		}
+		return count;
+	}
+	
+	/**
+	 * finds the entities nearest to the given location
+	 * @param center the center of the search
+	 * @param k the most entities to find
+	 * @param maxRadius the furthest distance from the center to include
+	 * @param filter only entities accepted by this filter are included, or null to include every entity
+	 * @param out the array to store the ids of the entities found in, nearest first, must be at least k long
+	 * @return the number of entities found
+	 */
+	public int findNearest(HexLocation center, int k, int maxRadius, EntityFilter filter, int[] out){
+		return findNearest(center.x(), center.y(), k, maxRadius, filter, out);
+	}
+	
+	private int distance(int id, int x, int y){
+		int dx = xs[id]-x;
+		int dy = ys[id]-y;
+		return (Math.abs(dx) + Math.abs(dy) + Math.abs(dx+dy))/2;
+	}
+	
+	/**
+	 * the lowest possible distance between the given coordinates and any hexagon in the given chunk
+	 * each of the 3 cube components of the offset is bounded separately, and the hexagon distance is the largest of the 3
+	 */
+	private int minDistance(int chunkX, int chunkY, int x, int y){
+		int size = 1<<chunkBits;
+		int lowX = (chunkX<<chunkBits)-x;
+		int lowY = (chunkY<<chunkBits)-y;
+		int highX = lowX+size-1;
+		int highY = lowY+size-1;
+		return Math.max(distanceFromZero(lowX, highX), Math.max(distanceFromZero(lowY, highY), distanceFromZero(lowX+lowY, highX+highY)));
+	}
+	
+	private static int distanceFromZero(int low, int high){
+		if(low>0)
+			return low;
+		if(high<0)
+			return -high;
+		return 0;
+	}
+	
+	private void heapAdd(int id, int distance, int pos){
+		while(pos>0){
+			int parent = (pos-1)>>1;
+			if(heapDistances[parent]>=distance)
+				break;
+			heapIds[pos] = heapIds[parent];
+			heapDistances[pos] = heapDistances[parent];
+			pos = parent;
+		}
+		heapIds[pos] = id;
+		heapDistances[pos] = distance;
+	}
+	
+	private void heapReplaceTop(int id, int distance, int count){
+		int pos = 0;
+		while(true){
+			int child = 2*pos+1;
+			if(child>=count)
+				break;
+			if(child+1<count&&heapDistances[child+1]>heapDistances[child])
+				child++;
+			if(heapDistances[child]<=distance)
+				break;
+			heapIds[pos] = heapIds[child];
+			heapDistances[pos] = heapDistances[child];
+			pos = child;
+		}
+		heapIds[pos] = id;
+		heapDistances[pos] = distance;
+	}
+	
+	private void removeFromBucket(int id, Bucket bucket){
+		int slot = slotOf[id];
+		int last = bucket.ids[--bucket.count];
+		bucket.ids[slot] = last;
+		slotOf[last] = slot;
+		if(bucket.count==0){
+			buckets.remove(bucket.key);
+			if(spareCount<MAX_SPARES)
+				spares[spareCount++] = bucket;
+		}
+	}
+	
+	private void grow(int id){
+		int capacity = Math.max(xs.length*2, id+1);
+		xs = Arrays.copyOf(xs, capacity);
+		ys = Arrays.copyOf(ys, capacity);
+		bucketOf = Arrays.copyOf(bucketOf, capacity);
+		slotOf = Arrays.copyOf(slotOf, capacity);
+	}
+	
+	private static class Bucket
+	{
+		public long key;
+		public int[] ids = new int[4];
+		public int count;
+		
+		public Bucket(long key)
+		{
+			this.key = key;
+		}
+		
+	}
+
+}
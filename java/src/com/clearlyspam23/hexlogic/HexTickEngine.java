@@ -0,0 +1,159 @@
+package com.clearlyspam23.hexlogic;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * Runs a cellular automaton (see HexTickRule) over a HexGrid in parallel, one tick at a time.
+ * 
+ * The engine holds two grids, a front grid holding the current state, and a back grid the next state is written into.
+ * Each tick, the grid is split into bands of whole columns (tiles sharing the same 1st array index, which sit together in memory), 
+ * and the bands are run across a ForkJoinPool. Once every band is done, the two grids are swapped.
+ * Since the rule only reads from the front grid, and each band only writes to its own part of the back grid, no locking is needed.
+ * 
+ * The tasks for each band are created once and reused, so running a tick creates no garbage of its own.
+ * Neither grid should have a HexChangeTracker attached, as trackers are not thread safe.
+ * 
+ * @author clearlyspam23
+ *
+ * @param <T> the Tile object stored in the grid
+ */
+public class HexTickEngine<T> {
+	
+	private final HexTickRule<T> rule;
+	private final ForkJoinPool pool;
+	private final RecursiveAction[] bands;
+	private final RecursiveAction root;
+	
+	private HexGrid<T> front;
+	private HexGrid<T> back;
+	private long ticks;
+	
+	/**
+	 * constructs a new HexTickEngine starting from the given grid, running on the common ForkJoinPool
+	 * a second grid of the same size is created to write each next state into
+	 * @param initial the grid holding the starting state, which becomes the front grid
+	 * @param rule the rule to run on every tile each tick
+	 */
+	public HexTickEngine(HexGrid<T> initial, HexTickRule<T> rule){
+		this(initial, new HexGrid<T>(initial.getWidth(), initial.getHeight()), rule, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * constructs a new HexTickEngine using the given grids, running on the given ForkJoinPool
+	 * @param front the grid holding the starting state
+	 * @param back a grid of the same size, to write each next state into
+	 * @param rule the rule to run on every tile each tick
+	 * @param pool the pool to run each tick on
+	 */
+	public HexTickEngine(HexGrid<T> front, HexGrid<T> back, HexTickRule<T> rule, ForkJoinPool pool){
+		if(front.getWidth()!=back.getWidth()||front.getHeight()!=back.getHeight())
+			throw new IllegalArgumentException("the front and back grids must be the same size");
+		this.front = front;
+		this.back = back;
+		this.rule = rule;
+		this.pool = pool;
+		//a few bands per thread, so threads that finish early can steal work from slower ones
+		int width = front.getWidth();
+		int count = Math.max(1, Math.min(width, pool.getParallelism()*4));
+		bands = new RecursiveAction[count];
+		for(int i = 0; i < count; i++)
+			bands[i] = new Band((int)((long)width*i/count), (int)((long)width*(i+1)/count));
+		root = new RecursiveAction(){
+			private static final long serialVersionUID = 1L;
+			
+			protected void compute(){
+				ForkJoinTask.invokeAll(bands);
+			}
+		};
+	}
+	
+	/**
+	 * runs the rule on every tile, and then swaps the front and back grids
+	 */
+	public void tick(){
+		for(RecursiveAction band : bands)
+			band.reinitialize();
+		root.reinitialize();
+		pool.invoke(root);
+		HexGrid<T> temp = front;
+		front = back;
+		back = temp;
+		ticks++;
+	}
+	
+	/**
+	 * runs the given number of ticks
+	 * @param count the number of ticks to run
+	 */
+	public void tick(int count){
+		for(int i = 0; i < count; i++)
+			tick();
+	}
+	
+	/**
+	 * gets the grid holding the current state. This grid is reused two ticks from now, so anything that needs to be kept should be copied out
+	 * @return the front grid
+	 */
+	public HexGrid<T> getCurrent(){
+		return front;
+	}
+	
+	/**
+	 * @return the number of ticks run so far
+	 */
+	public long getTickCount(){
+		return ticks;
+	}
+	
+	private class Band extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+		
+		private final int start;
+		private final int end;
+		
+		public Band(int start, int end)
+		{
+			this.start = start;
+			this.end = end;
+		}
+		
+		protected void compute()
+		{
+			HexGrid<T> current = front;
+			HexGrid<T> next = back;
+			int height = current.getHeight();
+			for(int x = start; x < end; x++)
+				for(int y = 0; y < height; y++)
+					next.setAtRawLocation(x, y, rule.update(current, x, y));
+		}
+		
+	}
+
+}
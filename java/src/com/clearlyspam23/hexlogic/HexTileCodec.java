@@ -0,0 +1,69 @@
+package com.clearlyspam23.hexlogic;
+
+import java.nio.ByteBuffer;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * Converts tiles to and from fixed size binary records, for saving and loading HexGrids (see HexGridIO).
+ * 
+ * Every tile must take up exactly getRecordSize() bytes, which is what lets a saved grid be read from at any tile without reading the tiles before it.
+ * Reads and writes are given an absolute offset rather than using the buffer's position, so one buffer can be read by many threads at once.
+ * 
+ * @author clearlyspam23
+ *
+ * @param <T> the Tile object stored in the grid
+ */
+public interface HexTileCodec<T> {
+	
+	/**
+	 * gets a number identifying this codec, which is stored in the header of saved grids so that grids are never read back with the wrong codec
+	 * @return this codec's id
+	 */
+	public int getCodecId();
+	
+	/**
+	 * gets the number of bytes each tile takes up
+	 * @return the size of each record, in bytes
+	 */
+	public int getRecordSize();
+	
+	/**
+	 * writes a tile into the given buffer, taking up exactly getRecordSize() bytes
+	 * @param tile the tile to write, which may be null
+	 * @param buffer the buffer to write to
+	 * @param offset the position in the buffer to write the record at
+	 */
+	public void write(T tile, ByteBuffer buffer, int offset);
+	
+	/**
+	 * reads a tile out of the given buffer, from exactly getRecordSize() bytes
+	 * @param buffer the buffer to read from
+	 * @param offset the position in the buffer of the record
+	 * @return the tile stored in that record
+	 */
+	public T read(ByteBuffer buffer, int offset);
+
+}
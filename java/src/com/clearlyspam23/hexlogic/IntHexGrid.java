@@ -0,0 +1,204 @@
+package com.clearlyspam23.hexlogic;
+
+import java.util.Arrays;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * A Hexagon grid storing a single int per tile, such as movement costs, heights or faction ownership
+ * 
+ * Every tile is stored in one flat int array, one row after another (see PrimitiveHexGrid), which takes a fraction of the memory of a HexGrid of boxed values,
+ * and lets whole grid passes run straight down the array. The backing array is available through getData() for such passes.
+ * 
+ * @author clearlyspam23
+ *
+ */
+public class IntHexGrid extends PrimitiveHexGrid {
+	
+	private final int[] data;
+	
+	/**
+	 * constructs a new IntHexGrid with the given dimensions, with every tile set to 0
+	 * @param width the horizontal area of the hexagon grid
+	 * @param height the vertical area of the hexagon grid
+	 */
+	public IntHexGrid(int width, int height){
+		super(width, height);
+		data = new int[width*height];
+	}
+	
+	/**
+	 * constructs a new IntHexGrid as a copy of the given grid
+	 * @param other the grid to copy
+	 */
+	public IntHexGrid(IntHexGrid other){
+		super(other.width, other.height);
+		data = other.data.clone();
+	}
+	
+	/**
+	 * gets the value at the given raw location
+	 * raw location means the actual array position of the tile, not it's location in hex space
+	 * @param x the horizontal array position
+	 * @param y the vertical array position
+	 * @return the value at that location
+	 */
+	public int getAtRawLocation(int x, int y){
+		return data[checkedIndex(x, y)];
+	}
+	
+	/**
+	 * sets the value at the given raw location
+	 * raw location means the actual array position of the tile, not it's location in hex space
+	 * @param x the horizontal array position
+	 * @param y the vertical array position
+	 * @param value the value to set that location to
+	 */
+	public void setAtRawLocation(int x, int y, int value){
+		data[checkedIndex(x, y)] = value;
+	}
+	
+	/**
+	 * gets the value at the given index
+	 * @param index the index of the tile
+	 * @return the value at that index
+	 */
+	public int getAtIndex(int index){
+		return data[index];
+	}
+	
+	/**
+	 * sets the value at the given index
+	 * @param index the index of the tile
+	 * @param value the value to set that index to
+	 */
+	public void setAtIndex(int index, int value){
+		data[index] = value;
+	}
+	
+	/**
+	 * gets the value at the given HexLocation
+	 * @param location the HexLocation to get
+	 * @return the value at the given HexLocation
+	 */
+	public int get(HexLocation location){
+		int y = location.y();
+		return data[checkedIndex(location.x() + y/2, y)];
+	}
+	
+	/**
+	 * gets the value at the HexLocation represented by the given coordinates
+	 * @param x
+	 * @param y
+	 * @return the value at the given HexLocation
+	 */
+	public int get(int x, int y){
+		return data[checkedIndex(x + y/2, y)];
+	}
+	
+	/**
+	 * sets the value at the given HexLocation
+	 * @param location the HexLocation to set
+	 * @param value the value to set that location to
+	 */
+	public void set(HexLocation location, int value){
+		int y = location.y();
+		data[checkedIndex(location.x() + y/2, y)] = value;
+	}
+	
+	/**
+	 * sets the value at the HexLocation represented by the given coordinates
+	 * @param x
+	 * @param y
+	 * @param value the value to set that location to
+	 */
+	public void set(int x, int y, int value){
+		data[checkedIndex(x + y/2, y)] = value;
+	}
+	
+	/**
+	 * sets every tile in this grid to the given value
+	 * @param value the value to fill this grid with
+	 */
+	public void fill(int value){
+		Arrays.fill(data, value);
+	}
+	
+	/**
+	 * sets every tile in the given row to the given value
+	 * @param y the vertical array position of the row
+	 * @param value the value to fill the row with
+	 */
+	public void fillRow(int y, int value){
+		Arrays.fill(data, y*width, (y+1)*width, value);
+	}
+	
+	/**
+	 * copies every tile of another grid of the same dimensions into this grid
+	 * @param other the grid to copy from
+	 */
+	public void copyFrom(IntHexGrid other){
+		if(other.width!=width||other.height!=height)
+			throw new IllegalArgumentException("cannot copy a " + other.width + "x" + other.height + " grid into a " + width + "x" + height + " grid");
+		System.arraycopy(other.data, 0, data, 0, data.length);
+	}
+	
+	/**
+	 * copies a row of this grid into the given array
+	 * @param y the vertical array position of the row
+	 * @param out the array to copy the row into
+	 * @param offset the position in out to start copying to
+	 */
+	public void getRow(int y, int[] out, int offset){
+		System.arraycopy(data, y*width, out, offset, width);
+	}
+	
+	/**
+	 * copies the given array into a row of this grid
+	 * @param y the vertical array position of the row
+	 * @param in the array to copy the row from
+	 * @param offset the position in in to start copying from
+	 */
+	public void setRow(int y, int[] in, int offset){
+		System.arraycopy(in, offset, data, y*width, width);
+	}
+	
+	/**
+	 * gets the array backing this grid. Changes made to the array are changes made to this grid
+	 * @return the backing array, with tile (x, y) in array space at index y*getWidth() + x
+	 */
+	public int[] getData(){
+		return data;
+	}
+	
+	/**
+	 * creates and returns a copy of this grid
+	 * @return a copy of this grid
+	 */
+	public IntHexGrid copy(){
+		return new IntHexGrid(this);
+	}
+
+}
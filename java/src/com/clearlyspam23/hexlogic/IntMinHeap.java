@@ -0,0 +1,158 @@
+package com.clearlyspam23.hexlogic;
+
+import java.util.Arrays;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * A binary min heap of int values (generally tile indices), each with an int priority.
+ * Every value can be in the heap at most once, and pushing a value that is already in the heap lowers its priority instead.
+ * 
+ * Everything is stored in primitive arrays which are allocated once, so using this heap never creates garbage.
+ * 
+ * @author clearlyspam23
+ *
+ */
+final class IntMinHeap {
+	
+	private int[] values;
+	private int[] priorities;
+	private int[] positions;
+	private int size;
+	
+	/**
+	 * constructs a new IntMinHeap that can hold the values 0 to capacity-1
+	 * @param capacity 1 more than the largest value this heap can hold
+	 */
+	public IntMinHeap(int capacity){
+		values = new int[capacity];
+		priorities = new int[capacity];
+		positions = new int[capacity];
+		Arrays.fill(positions, -1);
+	}
+	
+	/**
+	 * adds the given value to this heap, or lowers its priority if it is already in this heap with a higher priority
+	 * @param value the value to add
+	 * @param priority the priority of that value, lower priorities come out of this heap first
+	 */
+	public void push(int value, int priority){
+		int pos = positions[value];
+		if(pos<0){
+			pos = size++;
+		}
+		else if(priorities[pos]<=priority){
+			return;
+		}
+		//sift up
+		while(pos>0){
+			int parent = (pos-1)>>1;
+			if(priorities[parent]<=priority)
+				break;
+			move(parent, pos);
+			pos = parent;
+		}
+		values[pos] = value;
+		priorities[pos] = priority;
+		positions[value] = pos;
+	}
+	
+	/**
+	 * removes and returns the value with the lowest priority in this heap
+	 * @return the value with the lowest priority
+	 */
+	public int pop(){
+		int ans = values[0];
+		positions[ans] = -1;
+		size--;
+		if(size>0){
+			int value = values[size];
+			int priority = priorities[size];
+			//sift down
+			int pos = 0;
+			int half = size>>1;
+			while(pos<half){
+				int child = 2*pos+1;
+				if(child+1<size&&priorities[child+1]<priorities[child])
+					child++;
+				if(priority<=priorities[child])
+					break;
+				move(child, pos);
+				pos = child;
+			}
+			values[pos] = value;
+			priorities[pos] = priority;
+			positions[value] = pos;
+		}
+		return ans;
+	}
+	
+	/**
+	 * gets the lowest priority in this heap, without removing anything
+	 * @return the lowest priority in this heap
+	 */
+	public int peekPriority(){
+		return priorities[0];
+	}
+	
+	/**
+	 * checks if the given value is currently in this heap
+	 * @param value the value to check
+	 * @return whether or not that value is in this heap
+	 */
+	public boolean contains(int value){
+		return positions[value]>=0;
+	}
+	
+	/**
+	 * @return whether or not this heap is empty
+	 */
+	public boolean isEmpty(){
+		return size==0;
+	}
+	
+	/**
+	 * removes everything from this heap
+	 */
+	public void clear(){
+		for(int i = 0; i < size; i++)
+			positions[values[i]] = -1;
+		size = 0;
+	}
+	
+	/**
+	 * @return 1 more than the largest value this heap can hold
+	 */
+	public int getCapacity(){
+		return positions.length;
+	}
+	
+	private void move(int from, int to){
+		values[to] = values[from];
+		priorities[to] = priorities[from];
+		positions[values[to]] = to;
+	}
+
+}
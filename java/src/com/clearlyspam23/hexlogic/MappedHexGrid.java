@@ -0,0 +1,144 @@
+package com.clearlyspam23.hexlogic;
+
+import java.nio.MappedByteBuffer;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * A read through view of a HexGrid saved to a file, created by HexGridIO.map.
+ * 
+ * The file is mapped into memory rather than read, and each tile is only decoded when it is asked for, 
+ * so opening a map costs almost nothing, and the operating system only pages in the parts of the file that are actually used.
+ * Each get decodes a fresh tile, so tiles that are used often should be kept by the caller, or the whole grid loaded with HexGridIO.load.
+ * 
+ * Raw locations and HexLocations map to tiles the same way as in HexGrid. Reads are safe from any number of threads, as long as the codec's reads are.
+ * 
+ * @author clearlyspam23
+ *
+ * @param <T> the Tile object stored in the grid
+ */
+public class MappedHexGrid<T> {
+	
+	private final int width;
+	private final int height;
+	private final HexTileCodec<T> codec;
+	private final int recordSize;
+	private final MappedByteBuffer[] segments;
+	private final int rowsPerSegment;
+	
+	MappedHexGrid(int width, int height, HexTileCodec<T> codec, MappedByteBuffer[] segments, int rowsPerSegment){
+		this.width = width;
+		this.height = height;
+		this.codec = codec;
+		this.recordSize = codec.getRecordSize();
+		this.segments = segments;
+		this.rowsPerSegment = rowsPerSegment;
+	}
+	
+	/**
+	 * gets a tile at the given raw location, decoding it from the file
+	 * raw location means the actual array position of the tile, not it's location in hex space
+	 * @param x the horizontal array position
+	 * @param y the vertical array position
+	 * @return the tile at that location
+	 */
+	public T getAtRawLocation(int x, int y){
+		if(x<0||x>=width||y<0||y>=height)
+			throw new IndexOutOfBoundsException("[" + x + ", " + y + "] is outside of a " + width + "x" + height + " grid");
+		int segment = y/rowsPerSegment;
+		return codec.read(segments[segment], ((y-segment*rowsPerSegment)*width + x)*recordSize);
+	}
+	
+	/**
+	 * sets the tile at the given raw location, encoding it straight into the file
+	 * only allowed if this grid was mapped as writable
+	 * @param x the horizontal array position
+	 * @param y the vertical array position
+	 * @param t the tile to set that location to
+	 */
+	public void setAtRawLocation(int x, int y, T t){
+		if(x<0||x>=width||y<0||y>=height)
+			throw new IndexOutOfBoundsException("[" + x + ", " + y + "] is outside of a " + width + "x" + height + " grid");
+		int segment = y/rowsPerSegment;
+		codec.write(t, segments[segment], ((y-segment*rowsPerSegment)*width + x)*recordSize);
+	}
+	
+	/**
+	 * gets the tile at the given HexLocation, decoding it from the file
+	 * @param location the HexLocation to get
+	 * @return the tile at the given HexLocation
+	 */
+	public T get(HexLocation location){
+		int y = location.y();
+		return getAtRawLocation(location.x() + y/2, y);
+	}
+	
+	/**
+	 * gets the tile at the HexLocation represented by the given coordinates, decoding it from the file
+	 * @param x
+	 * @param y
+	 * @return the tile at the given HexLocation
+	 */
+	public T get(int x, int y){
+		return getAtRawLocation(x + y/2, y);
+	}
+	
+	/**
+	 * makes sure every change made to this grid has been written out to the file
+	 */
+	public void flush(){
+		for(MappedByteBuffer segment : segments)
+			if(!segment.isReadOnly())
+				segment.force();
+	}
+	
+	/**
+	 * checks if the given HexLocation is a valid location for this grid
+	 * @param loc the HexLocation to check
+	 * @return whether or not that location is valid
+	 */
+	public boolean isValidLocation(HexLocation loc){
+		int y = loc.y();
+		int x = loc.x() + y/2;
+		return x>=0&&x<width&&y>=0&&y<height;
+	}
+	
+	/**
+	 * gets the height of this grid
+	 * @return this grid's height
+	 */
+	public int getHeight(){
+		return height;
+	}
+	
+	/**
+	 * gets the width of this grid
+	 * @return this grid's width
+	 */
+	public int getWidth(){
+		return width;
+	}
+
+}
@@ -0,0 +1,143 @@
+package com.clearlyspam23.hexlogic;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * Static helper functions for packing the axial coordinates of a hexagon into a single primitive, and back out again.
+ * 
+ * a packed long can hold any pair of int coordinates, with x in the upper 32 bits, and y in the lower 32 bits.
+ * a packed int is more compact, but can only hold coordinates between -32768 and 32767, with x in the upper 16 bits and y in the lower 16 bits.
+ * 
+ * packed coordinates are plain values, so unlike a HexLocation they are safe to use as keys, and cost nothing to store in primitive arrays.
+ * 
+ * @author clearlyspam23
+ *
+ */
+public final class PackedHex {
+	
+	private PackedHex(){
+		
+	}
+	
+	/**
+	 * packs the given coordinates into a long
+	 * @param x the horizontal component
+	 * @param y the diagonal component
+	 * @return the packed coordinates
+	 */
+	public static long pack(int x, int y){
+		return ((long)x<<32) | (y & 0xFFFFFFFFL);
+	}
+	
+	/**
+	 * packs the coordinates of the given HexLocation into a long
+	 * @param location the HexLocation to pack
+	 * @return the packed coordinates
+	 */
+	public static long pack(HexLocation location){
+		return pack(location.x(), location.y());
+	}
+	
+	/**
+	 * gets the horizontal component of the given packed coordinates
+	 * @param packed coordinates packed into a long
+	 * @return the horizontal component
+	 */
+	public static int x(long packed){
+		return (int)(packed>>32);
+	}
+	
+	/**
+	 * gets the diagonal component of the given packed coordinates
+	 * @param packed coordinates packed into a long
+	 * @return the diagonal component
+	 */
+	public static int y(long packed){
+		return (int)packed;
+	}
+	
+	/**
+	 * unpacks the given coordinates into a HexLocation
+	 * @param packed coordinates packed into a long
+	 * @param locOut the object to store the result in
+	 * @return locOut, for chaining
+	 */
+	public static HexLocation unpack(long packed, HexLocation locOut){
+		return locOut.set(x(packed), y(packed));
+	}
+	
+	/**
+	 * packs the given coordinates into an int. Both coordinates must be between -32768 and 32767
+	 * @param x the horizontal component
+	 * @param y the diagonal component
+	 * @return the packed coordinates
+	 */
+	public static int packInt(int x, int y){
+		return (x<<16) | (y & 0xFFFF);
+	}
+	
+	/**
+	 * gets the horizontal component of the given coordinates packed into an int
+	 * @param packed coordinates packed into an int
+	 * @return the horizontal component
+	 */
+	public static int xOfInt(int packed){
+		return packed>>16;
+	}
+	
+	/**
+	 * gets the diagonal component of the given coordinates packed into an int
+	 * @param packed coordinates packed into an int
+	 * @return the diagonal component
+	 */
+	public static int yOfInt(int packed){
+		return (short)packed;
+	}
+	
+	/**
+	 * calculates the hexagon distance between two sets of packed coordinates
+	 * @param a the first coordinates, packed into a long
+	 * @param b the second coordinates, packed into a long
+	 * @return the distance between the two
+	 */
+	public static int distance(long a, long b){
+		int dx = x(a)-x(b);
+		int dy = y(a)-y(b);
+		return (Math.abs(dx) + Math.abs(dy) + Math.abs(dx+dy))/2;
+	}
+	
+	/**
+	 * mixes the bits of the given packed coordinates into a well spread hash code, for use in hash tables
+	 * @param packed coordinates packed into a long
+	 * @return the hash of those coordinates
+	 */
+	public static int hash(long packed){
+		long h = packed*0x9E3779B97F4A7C15L;
+		h ^= h>>>32;
+		h *= 0xC2B2AE3D27D4EB4FL;
+		return (int)(h ^ (h>>>29));
+	}
+
+}
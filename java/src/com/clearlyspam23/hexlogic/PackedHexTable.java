@@ -0,0 +1,297 @@
+package com.clearlyspam23.hexlogic;
+
+import java.util.Arrays;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * The shared base of the hash tables keyed by packed hex coordinates (see PackedHex).
+ * 
+ * Keys are stored directly in a long array, using open addressing with linear probing, so no objects are created per entry.
+ * Removal shifts later entries back into the gap rather than leaving markers behind, so lookups never slow down over time.
+ * One key value is used to mark empty slots, and if that key is actually added it is kept in an extra slot at the end.
+ * 
+ * Entries can be iterated without creating an Iterator, by walking the slots:
+ * 
+ * for(int slot = table.nextSlot(-1); slot>=0; slot = table.nextSlot(slot))
+ *     doSomething(table.keyAt(slot));
+ * 
+ * Tables must not be changed while iterating over them. Tables are not thread safe.
+ * 
+ * @author clearlyspam23
+ *
+ */
+public abstract class PackedHexTable {
+	
+	/**
+	 * the key used to mark empty slots
+	 */
+	private static final long FREE = Long.MIN_VALUE;
+	private static final float LOAD_FACTOR = 0.75f;
+	
+	private long[] keys;
+	private int mask;
+	private int size;
+	private int threshold;
+	private boolean hasFreeKey;
+	
+	/**
+	 * constructs a new PackedHexTable, with room for the given number of entries before it needs to grow
+	 * @param expectedSize the number of entries expected
+	 */
+	protected PackedHexTable(int expectedSize){
+		int capacity = 8;
+		while(capacity*LOAD_FACTOR<expectedSize)
+			capacity<<=1;
+		keys = new long[capacity];
+		Arrays.fill(keys, FREE);
+		mask = capacity-1;
+		threshold = (int)(capacity*LOAD_FACTOR);
+	}
+	
+	/**
+	 * gets the number of normal slots in this table. The slot after these is reserved for the key used to mark empty slots.
+	 * @return the number of normal slots
+	 */
+	protected final int getCapacity(){
+		return keys.length;
+	}
+	
+	/**
+	 * finds the slot holding the given key
+	 * @param key the key to find
+	 * @return the slot holding the key, or -1 if the key is not in this table
+	 */
+	protected final int findSlot(long key){
+		if(key==FREE)
+			return hasFreeKey ? keys.length : -1;
+		int slot = PackedHex.hash(key) & mask;
+		while(true){
+			long k = keys[slot];
+			if(k==key)
+				return slot;
+			if(k==FREE)
+				return -1;
+			slot = (slot+1) & mask;
+		}
+	}
+	
+	/**
+	 * finds the slot holding the given key, adding the key if it is not in this table yet
+	 * @param key the key to find or add
+	 * @return the slot holding the key if it was already in this table, or -(slot+1) if the key had to be added
+	 */
+	protected final int insertSlot(long key){
+		if(key==FREE){
+			if(hasFreeKey)
+				return keys.length;
+			hasFreeKey = true;
+			size++;
+			return -(keys.length+1);
+		}
+		int slot = PackedHex.hash(key) & mask;
+		while(true){
+			long k = keys[slot];
+			if(k==key)
+				return slot;
+			if(k==FREE)
+				break;
+			slot = (slot+1) & mask;
+		}
+		if(size-(hasFreeKey ? 1 : 0)>=threshold){
+			grow();
+			return insertSlot(key);
+		}
+		keys[slot] = key;
+		size++;
+		return -(slot+1);
+	}
+	
+	/**
+	 * removes the entry in the given slot, shifting back any entries after it that would otherwise become unreachable
+	 * @param slot the slot to empty
+	 */
+	protected final void removeSlot(int slot){
+		size--;
+		if(slot==keys.length){
+			hasFreeKey = false;
+			clearValue(slot);
+			return;
+		}
+		int gap = slot;
+		int i = (gap+1) & mask;
+		long k;
+		while((k = keys[i])!=FREE){
+			int ideal = PackedHex.hash(k) & mask;
+			//the entry at i can fill the gap only if the gap is on its probe path, between its ideal slot and i
+			if(((i-ideal) & mask)>=((i-gap) & mask)){
+				keys[gap] = k;
+				moveValue(i, gap);
+				gap = i;
+			}
+			i = (i+1) & mask;
+		}
+		keys[gap] = FREE;
+		clearValue(gap);
+	}
+	
+	private void grow(){
+		long[] oldKeys = keys;
+		int capacity = oldKeys.length<<1;
+		keys = new long[capacity];
+		Arrays.fill(keys, FREE);
+		mask = capacity-1;
+		threshold = (int)(capacity*LOAD_FACTOR);
+		beginResize(capacity);
+		for(int i = 0; i < oldKeys.length; i++){
+			long k = oldKeys[i];
+			if(k==FREE)
+				continue;
+			int slot = PackedHex.hash(k) & mask;
+			while(keys[slot]!=FREE)
+				slot = (slot+1) & mask;
+			keys[slot] = k;
+			resizeValue(i, slot);
+		}
+		if(hasFreeKey)
+			resizeValue(oldKeys.length, capacity);
+		endResize();
+	}
+	
+	/**
+	 * called when this table grows, before any entries are moved. Subclasses should set aside their old values, and allocate room for capacity+1 values
+	 * @param capacity the new number of normal slots
+	 */
+	protected abstract void beginResize(int capacity);
+	
+	/**
+	 * called while this table grows, for each entry moved from the old slots into the new ones
+	 * @param oldSlot the slot of the entry before growing
+	 * @param newSlot the slot of the entry after growing
+	 */
+	protected abstract void resizeValue(int oldSlot, int newSlot);
+	
+	/**
+	 * called once this table is done growing, so subclasses can let go of their old values
+	 */
+	protected abstract void endResize();
+	
+	/**
+	 * called when an entry is shifted from one slot to another
+	 * @param from the slot the entry is leaving
+	 * @param to the slot the entry is moving to
+	 */
+	protected abstract void moveValue(int from, int to);
+	
+	/**
+	 * called when a slot is emptied, so subclasses can let go of its value
+	 * @param slot the emptied slot
+	 */
+	protected abstract void clearValue(int slot);
+	
+	/**
+	 * checks if the given key is in this table
+	 * @param key coordinates packed into a long
+	 * @return whether or not the key is in this table
+	 */
+	public boolean containsKey(long key){
+		return findSlot(key)>=0;
+	}
+	
+	/**
+	 * checks if the given coordinates are in this table
+	 * @param x the horizontal component
+	 * @param y the diagonal component
+	 * @return whether or not the coordinates are in this table
+	 */
+	public boolean containsKey(int x, int y){
+		return findSlot(PackedHex.pack(x, y))>=0;
+	}
+	
+	/**
+	 * checks if the given HexLocation is in this table
+	 * @param location the location to check
+	 * @return whether or not the location is in this table
+	 */
+	public boolean containsKey(HexLocation location){
+		return findSlot(PackedHex.pack(location))>=0;
+	}
+	
+	/**
+	 * gets the next slot after the given one that holds an entry, for iterating over this table
+	 * @param slot the slot to start after, or -1 to find the first slot
+	 * @return the next slot holding an entry, or -1 if there are no more
+	 */
+	public int nextSlot(int slot){
+		long[] k = keys;
+		for(int i = slot+1; i < k.length; i++)
+			if(k[i]!=FREE)
+				return i;
+		if(hasFreeKey&&slot<k.length)
+			return k.length;
+		return -1;
+	}
+	
+	/**
+	 * gets the key stored in the given slot
+	 * @param slot a slot holding an entry
+	 * @return the packed coordinates stored in that slot
+	 */
+	public long keyAt(int slot){
+		return slot==keys.length ? FREE : keys[slot];
+	}
+	
+	/**
+	 * @return the number of entries in this table
+	 */
+	public int size(){
+		return size;
+	}
+	
+	/**
+	 * @return whether or not this table has no entries
+	 */
+	public boolean isEmpty(){
+		return size==0;
+	}
+	
+	/**
+	 * removes every entry from this table, keeping its current capacity
+	 */
+	public void clear(){
+		for(int i = 0; i < keys.length; i++){
+			if(keys[i]!=FREE){
+				keys[i] = FREE;
+				clearValue(i);
+			}
+		}
+		if(hasFreeKey){
+			hasFreeKey = false;
+			clearValue(keys.length);
+		}
+		size = 0;
+	}
+
+}
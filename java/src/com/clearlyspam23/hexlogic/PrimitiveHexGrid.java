@@ -0,0 +1,216 @@
+package com.clearlyspam23.hexlogic;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * The shared base of the HexGrids that store primitives (IntHexGrid, FloatHexGrid and ByteHexGrid) rather than Tile objects.
+ * 
+ * Rather than an array of arrays, each of these grids stores every tile in one flat array, one row after another, 
+ * so that tile (x, y) in array space is found at index y*width + x (the same index given by HexGrid.getIndex).
+ * Conversion between hexagon space and array space is the same as in HexGrid, so the same HexLocation refers to the same tile in either kind of grid.
+ * 
+ * @author clearlyspam23
+ *
+ */
+public abstract class PrimitiveHexGrid {
+	
+	protected final int width;
+	protected final int height;
+	
+	/**
+	 * constructs a new PrimitiveHexGrid with the given dimensions
+	 * @param width the horizontal area of the hexagon grid
+	 * @param height the vertical area of the hexagon grid
+	 */
+	protected PrimitiveHexGrid(int width, int height){
+		this.width = width;
+		this.height = height;
+	}
+	
+	/**
+	 * gets the index of the given raw location in the backing array
+	 * @param x the horizontal array position
+	 * @param y the vertical array position
+	 * @return the index of that raw location
+	 */
+	public int getIndex(int x, int y){
+		return y*width + x;
+	}
+	
+	/**
+	 * gets the index of the given raw location in the backing array, throwing if that location is not in this grid, the same as HexGrid does.
+	 * used by the accessors of each grid, since otherwise a horizontal position off either side of the grid would quietly land on the next or previous row
+	 * @param x the horizontal array position
+	 * @param y the vertical array position
+	 * @return the index of that raw location
+	 */
+	protected final int checkedIndex(int x, int y){
+		if(x<0||x>=width||y<0||y>=height)
+			throw new ArrayIndexOutOfBoundsException("raw location (" + x + ", " + y + ") is not in a " + width + "x" + height + " grid");
+		return y*width + x;
+	}
+	
+	/**
+	 * gets the index of the given HexLocation in the backing array
+	 * @param location the HexLocation to get the index of
+	 * @return the index of that location, or -1 if that location is not in this grid
+	 */
+	public int getIndex(HexLocation location){
+		int y = location.y();
+		int x = location.x() + y/2;
+		if(x<0||x>=width||y<0||y>=height)
+			return -1;
+		return y*width + x;
+	}
+	
+	/**
+	 * gets the horizontal array position of the given index
+	 * @param index an index in the backing array
+	 * @return the horizontal array position of that index
+	 */
+	public int getRawX(int index){
+		return index%width;
+	}
+	
+	/**
+	 * gets the vertical array position of the given index
+	 * @param index an index in the backing array
+	 * @return the vertical array position of that index
+	 */
+	public int getRawY(int index){
+		return index/width;
+	}
+	
+	/**
+	 * takes a location, in global hexagon space, and converts it to local array space
+	 * @param location a location in global hexagon space
+	 * @return a location in local array space
+	 */
+	public Location convert(HexLocation location){
+		return new Location(location.x() + (location.y())/2, location.y());
+	}
+	
+	/**
+	 * takes a location, in global hexagon space, and converts it to local array space
+	 * similar to the other convert function, except this stores the answer in the passed in Location
+	 * @param locIn a location in global hexagon space
+	 * @param locOut the object to store the result in
+	 * @return locOut, for chaining
+	 */
+	public Location convert(HexLocation locIn, Location locOut){
+		locOut.set(locIn.x() + (locIn.y())/2, locIn.y());
+		return locOut;
+	}
+	
+	/**
+	 * takes a location, in local array space, and converts it to global hexagon space
+	 * @param location a location in local array space
+	 * @return a location in global hexagon space
+	 */
+	public HexLocation convert(Location location){
+		return new HexLocation(location.x() - location.y()/2, location.y());
+	}
+	
+	/**
+	 * takes a location, in local array space, and converts it to global hexagon space
+	 * similar to the other convert function, except this stores the answer in the passed in HexLocation
+	 * @param locIn a location in local array space
+	 * @param locOut the object to store the result in
+	 * @return locOut, for chaining
+	 */
+	public HexLocation convert(Location locIn, HexLocation locOut){
+		locOut.set(locIn.x() - locIn.y()/2, locIn.y());
+		return locOut;
+	}
+	
+	/**
+	 * takes an index, and converts it to global hexagon space
+	 * @param index an index in the backing array
+	 * @param locOut the object to store the result in
+	 * @return locOut, for chaining
+	 */
+	public HexLocation convert(int index, HexLocation locOut){
+		int y = index/width;
+		locOut.set(index%width - y/2, y);
+		return locOut;
+	}
+	
+	/**
+	 * checks if the given raw location is a valid position in this grid
+	 * @param loc the Location to check
+	 * @return whether or not that location is valid
+	 */
+	public boolean isValidLocation(Location loc){
+		return loc.x()>=0&&loc.x()<width&&loc.y()>=0&&loc.y()<height;
+	}
+	
+	/**
+	 * checks if the given HexLocation is a valid location for this grid
+	 * @param loc the HexLocation to check
+	 * @return whether or not that location is valid
+	 */
+	public boolean isValidLocation(HexLocation loc){
+		return getIndex(loc)>=0;
+	}
+	
+	/**
+	 * gets the index of the tile 1 unit in the given direction from the tile with the given index
+	 * @param index the index to start from
+	 * @param direction the direction to move in
+	 * @return the index of the neighboring tile, or -1 if that neighbor is not in this grid
+	 */
+	public int getNeighborIndex(int index, HexDirection direction){
+		int y = index/width;
+		int neighborY = y + direction.offsetY();
+		if(neighborY<0||neighborY>=height)
+			return -1;
+		int neighborX = index%width - y/2 + direction.offsetX() + neighborY/2;
+		if(neighborX<0||neighborX>=width)
+			return -1;
+		return neighborY*width + neighborX;
+	}
+	
+	/**
+	 * @return the number of tiles in this grid, which is also the length of the backing array
+	 */
+	public int getSize(){
+		return width*height;
+	}
+	
+	/**
+	 * @return the height of this grid
+	 */
+	public int getHeight(){
+		return height;
+	}
+	
+	/**
+	 * @return the width of this grid
+	 */
+	public int getWidth(){
+		return width;
+	}
+
+}
@@ -0,0 +1,198 @@
+package com.clearlyspam23.hexlogic;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * A Hexagon grid with no fixed bounds, for worlds that are huge but mostly empty.
+ * 
+ * Rather than allocating every tile up front like HexGrid, hexagon space is split into square chunks (in axial coordinates), 
+ * and a chunk is only allocated the first time something is set inside it. Coordinates may be negative.
+ * Chunks whose tiles have all been set back to null can be unloaded to free up their memory.
+ * 
+ * The last chunk accessed is remembered, so runs of accesses near each other skip the chunk lookup entirely.
+ * Because of this, a SparseHexGrid is not thread safe, even for reads.
+ * 
+ * @author clearlyspam23
+ *
+ * @param <T> the Tile object to store in this grid
+ */
+public class SparseHexGrid<T> {
+	
+	private final int chunkBits;
+	private final int chunkMask;
+	private final HexLongMap<Chunk> chunks = new HexLongMap<Chunk>();
+	
+	private long cachedKey;
+	private Chunk cachedChunk;
+	private boolean hasCachedChunk;
+	
+	/**
+	 * constructs a new, empty SparseHexGrid, using chunks 32 hexagons across
+	 */
+	public SparseHexGrid(){
+		this(5);
+	}
+	
+	/**
+	 * constructs a new, empty SparseHexGrid, using chunks 2^chunkBits hexagons across
+	 * so for instance, new SparseHexGrid(4) would use chunks of 16 by 16 hexagons
+	 * @param chunkBits the power of 2 to use for the size of each chunk, between 1 and 15
+	 */
+	public SparseHexGrid(int chunkBits){
+		if(chunkBits<1||chunkBits>15)
+			throw new IllegalArgumentException("chunkBits must be between 1 and 15, was " + chunkBits);
+		this.chunkBits = chunkBits;
+		chunkMask = (1<<chunkBits)-1;
+	}
+	
+	/**
+	 * gets the tile at the given HexLocation
+	 * @param location the HexLocation to get
+	 * @return the tile at the given HexLocation, or null if nothing has been set there
+	 */
+	public T get(HexLocation location){
+		return get(location.x(), location.y());
+	}
+	
+	/**
+	 * gets the tile at the HexLocation represented by the given coordinates
+	 * @param x
+	 * @param y
+	 * @return the tile at the given HexLocation, or null if nothing has been set there
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(int x, int y){
+		Chunk chunk = getChunk(PackedHex.pack(x>>chunkBits, y>>chunkBits));
+		if(chunk==null)
+			return null;
+		return (T)chunk.tiles[((y & chunkMask)<<chunkBits) | (x & chunkMask)];
+	}
+	
+	/**
+	 * sets the tile at the given HexLocation, allocating the chunk it falls in if needed
+	 * @param location the HexLocation to set
+	 * @param t the tile to set that location to, or null to clear it
+	 * @return the tile that was previously at that location
+	 */
+	public T set(HexLocation location, T t){
+		return set(location.x(), location.y(), t);
+	}
+	
+	/**
+	 * sets the tile at the HexLocation represented by the given coordinates, allocating the chunk it falls in if needed
+	 * @param x
+	 * @param y
+	 * @param t the tile to set that location to, or null to clear it
+	 * @return the tile that was previously at that location
+	 */
+	@SuppressWarnings("unchecked")
+	public T set(int x, int y, T t){
+		long key = PackedHex.pack(x>>chunkBits, y>>chunkBits);
+		Chunk chunk = getChunk(key);
+		if(chunk==null){
+			//clearing a tile in a chunk that doesn't exist changes nothing, so don't allocate one for it
+			if(t==null)
+				return null;
+			chunk = new Chunk(1<<(2*chunkBits));
+			chunks.put(key, chunk);
+			cachedChunk = chunk;
+		}
+		int index = ((y & chunkMask)<<chunkBits) | (x & chunkMask);
+		T ans = (T)chunk.tiles[index];
+		chunk.tiles[index] = t;
+		if(ans==null&&t!=null)
+			chunk.count++;
+		else if(ans!=null&&t==null)
+			chunk.count--;
+		return ans;
+	}
+	
+	/**
+	 * checks if the chunk containing the given HexLocation is currently allocated
+	 * @param location the HexLocation to check
+	 * @return whether or not the chunk containing that location is allocated
+	 */
+	public boolean isChunkLoaded(HexLocation location){
+		return getChunk(PackedHex.pack(location.x()>>chunkBits, location.y()>>chunkBits))!=null;
+	}
+	
+	/**
+	 * frees every chunk that no longer has any tiles in it
+	 * @return the number of chunks that were freed
+	 */
+	public int unloadEmptyChunks(){
+		int ans = 0;
+		int slot = chunks.nextSlot(-1);
+		while(slot>=0){
+			if(chunks.valueAt(slot).count==0){
+				chunks.remove(chunks.keyAt(slot));
+				ans++;
+				//removing can shift a later chunk back into this slot, so look at it again
+				if(chunks.valueAt(slot)!=null)
+					continue;
+			}
+			slot = chunks.nextSlot(slot);
+		}
+		hasCachedChunk = false;
+		cachedChunk = null;
+		return ans;
+	}
+	
+	/**
+	 * @return the number of chunks currently allocated
+	 */
+	public int getChunkCount(){
+		return chunks.size();
+	}
+	
+	/**
+	 * @return the width and height of each chunk, in hexagons
+	 */
+	public int getChunkSize(){
+		return 1<<chunkBits;
+	}
+	
+	private Chunk getChunk(long key){
+		if(hasCachedChunk&&cachedKey==key)
+			return cachedChunk;
+		cachedChunk = chunks.get(key);
+		cachedKey = key;
+		hasCachedChunk = true;
+		return cachedChunk;
+	}
+	
+	private static class Chunk
+	{
+		public Object[] tiles;
+		public int count;
+		
+		public Chunk(int size)
+		{
+			tiles = new Object[size];
+		}
+		
+	}
+
+}
@@ -0,0 +1,303 @@
+package com.clearlyspam23.rpglogic;
+
+import java.util.random.RandomGenerator;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * An immutable, compiled form of a DropTable, which uses Vose's alias method to fetch an item in constant time,
+ * regardless of how many entries the original table had.
+ * 
+ * Whatever chance is left over in the original table (the maximum chance minus the combined chances of all entries)
+ * is kept as its own explicit "no drop" outcome, so this table drops items at exactly the same rates as the DropTable it came from.
+ * 
+ * intended usage is to build a DropTable as normal, and then compile it once it is finished:
+ * 
+ * AliasDropTable<Item> compiled = table.compile();
+ * Item i = compiled.getValue();
+ * 
+ * @author clearlyspam23
+ *
+ * @param <T> the type of item being dropped
+ */
+public class AliasDropTable<T> {
+	
+	//how many times a roll that lands on an item already dropped is rolled again, before picking out of what is left directly
+	private static final int MAX_REROLLS = 16;
+	
+	private final Object[] items;
+	private final double[] chances;
+	private final double[] probability;
+	private final int[] alias;
+	
+	/**
+	 * constructs a new AliasDropTable out of the given items and their actual probability to drop
+	 * the probabilities are expected to be non negative, and to add up to at most 1. Whatever is left over becomes the "no drop" outcome
+	 * @param items the items that can be dropped
+	 * @param chances the probability of each item to be dropped, between 0 and 1
+	 */
+	AliasDropTable(Object[] items, double[] chances)
+	{
+		int entries = items.length;
+		int size = entries+1;
+		this.items = new Object[size];
+		System.arraycopy(items, 0, this.items, 0, entries);
+		this.chances = new double[size];
+		double total = 0;
+		for(int i = 0; i < entries; i++)
+		{
+			this.chances[i] = chances[i];
+			total+=chances[i];
+		}
+		this.chances[entries] = Math.max(0, 1-total);
+		total+=this.chances[entries];
+		probability = new double[size];
+		alias = new int[size];
+		
+		//Vose's alias method, see http://www.keithschwarz.com/darts-dice-coins/
+		double[] scaled = new double[size];
+		int[] small = new int[size];
+		int[] large = new int[size];
+		int smallCount = 0;
+		int largeCount = 0;
+		for(int i = 0; i < size; i++)
+		{
+			scaled[i] = total > 0 ? this.chances[i]*size/total : 1;
+			if(scaled[i]<1)
+				small[smallCount++] = i;
+			else
+				large[largeCount++] = i;
+		}
+		while(smallCount>0&&largeCount>0)
+		{
+			int less = small[--smallCount];
+			int more = large[--largeCount];
+			probability[less] = scaled[less];
+			alias[less] = more;
+			scaled[more] = (scaled[more]+scaled[less])-1;
+			if(scaled[more]<1)
+				small[smallCount++] = more;
+			else
+				large[largeCount++] = more;
+		}
+		//anything left over is only off from 1 due to rounding error
+		while(largeCount>0)
+		{
+			int i = large[--largeCount];
+			probability[i] = 1;
+			alias[i] = i;
+		}
+		while(smallCount>0)
+		{
+			int i = small[--smallCount];
+			probability[i] = 1;
+			alias[i] = i;
+		}
+	}
+	
+	/**
+	 * fetches the index of an outcome out of this table, given a value between 0 (inclusive) and 1 (exclusive). This value will probably be a randomly generated value.
+	 * this runs in constant time, no matter how many entries are in this table
+	 * @param value the value to try and fetch out of this table, between 0 and 1
+	 * @return the index of the outcome at the given value, which will be equal to getNoDropIndex() if no item is dropped
+	 */
+	public int getIndex(double value)
+	{
+		double scaled = value*probability.length;
+		int column = (int) scaled;
+		if(column>=probability.length)
+			column = probability.length-1;
+		return scaled-column < probability[column] ? column : alias[column];
+	}
+	
+	/**
+	 * fetches an item out of this table, given a value between 0 (inclusive) and 1 (exclusive). This value will probably be a randomly generated value.
+	 * @param value the value to try and fetch out of this table, between 0 and 1
+	 * @return the item at the given value, or null if no item is dropped
+	 */
+	public T getValue(double value)
+	{
+		return getItem(getIndex(value));
+	}
+	
+	/**
+	 * fetches an item out of this table, at random
+	 * @return the item that was dropped, or null if no item is dropped
+	 */
+	public T getValue()
+	{
+		return getValue(Math.random());
+	}
+	
+	/**
+	 * fetches an item out of this table, using the given random number generator rather than Math.random()
+	 * each thread rolling at the same time should pass in its own generator, to avoid fighting over the one shared by Math.random()
+	 * @param random the generator to roll with
+	 * @return the item that was dropped, or null if no item is dropped
+	 */
+	public T getValue(RandomGenerator random)
+	{
+		return getItem(getIndex(random.nextDouble()));
+	}
+	
+	/**
+	 * rolls this table several times, storing each dropped item in the given array
+	 * rolls that drop nothing store null
+	 * @param random the generator to roll with
+	 * @param out the array to store the results in
+	 * @param offset the first index of out to store a result in
+	 * @param count the amount of times to roll
+	 */
+	public void getValues(RandomGenerator random, T[] out, int offset, int count)
+	{
+		for(int i = 0; i < count; i++)
+			out[offset+i] = getItem(getIndex(random.nextDouble()));
+	}
+	
+	/**
+	 * rolls this table several times, storing each dropped item in the given array, but never dropping the same item twice
+	 * for instance, "roll 3 times, no duplicates" would be:
+	 * 
+	 * int dropped = compiled.getDistinctValues(random, out, 0, 3);
+	 * 
+	 * a roll that lands on an item already dropped (compared with equals) is rolled again, 
+	 * which gives every roll the same chances as rolling a table with the already dropped items taken out.
+	 * if a roll keeps landing on dropped items, it instead picks directly out of what is left, which is slower, but can never get stuck.
+	 * rolls that drop nothing store null, and do not count as duplicates of each other
+	 * @param random the generator to roll with
+	 * @param out the array to store the results in
+	 * @param offset the first index of out to store a result in
+	 * @param count the amount of times to roll
+	 * @return the number of items dropped, not counting rolls that dropped nothing
+	 */
+	public int getDistinctValues(RandomGenerator random, T[] out, int offset, int count)
+	{
+		int dropped = 0;
+		for(int i = 0; i < count; i++)
+		{
+			int index = -1;
+			for(int roll = 0; roll < MAX_REROLLS; roll++)
+			{
+				int candidate = getIndex(random.nextDouble());
+				if(!isDropped(items[candidate], out, offset, i))
+				{
+					index = candidate;
+					break;
+				}
+			}
+			if(index<0)
+				index = getRemainingIndex(random.nextDouble(), out, offset, i);
+			T item = getItem(index);
+			out[offset+i] = item;
+			if(item!=null)
+				dropped++;
+		}
+		return dropped;
+	}
+	
+	private static boolean isDropped(Object item, Object[] out, int offset, int count)
+	{
+		if(item==null)
+			return false;
+		for(int i = 0; i < count; i++)
+			if(item.equals(out[offset+i]))
+				return true;
+		return false;
+	}
+	
+	//picks an outcome directly out of every outcome whose item has not already been dropped, by scanning them all
+	private int getRemainingIndex(double value, Object[] out, int offset, int count)
+	{
+		double total = 0;
+		for(int i = 0; i < items.length; i++)
+			if(!isDropped(items[i], out, offset, count))
+				total+=chances[i];
+		double target = value*total;
+		int last = getNoDropIndex();
+		for(int i = 0; i < items.length; i++)
+		{
+			if(isDropped(items[i], out, offset, count))
+				continue;
+			last = i;
+			target-=chances[i];
+			if(target<0)
+				return i;
+		}
+		return last;
+	}
+	
+	/**
+	 * rolls this table several times, and adds up how many times each outcome occurred
+	 * counts[i] is increased by the amount of times outcome i occurred, including counts[getNoDropIndex()] for rolls that dropped nothing
+	 * @param random the generator to roll with
+	 * @param rolls the amount of times to roll
+	 * @param counts the array to add the results to, must be at least getOutcomeCount() long
+	 */
+	public void countValues(RandomGenerator random, int rolls, int[] counts)
+	{
+		for(int i = 0; i < rolls; i++)
+			counts[getIndex(random.nextDouble())]++;
+	}
+	
+	/**
+	 * gets the item of the given outcome
+	 * @param index the index of the outcome, in the same order the entries were added to the original DropTable
+	 * @return the item of that outcome, or null if the index is the "no drop" outcome
+	 */
+	@SuppressWarnings("unchecked")
+	public T getItem(int index)
+	{
+		return (T)items[index];
+	}
+	
+	/**
+	 * gets the actual probability of the given outcome occurring, between 0 and 1
+	 * @param index the index of the outcome
+	 * @return the probability of that outcome
+	 */
+	public double getChance(int index)
+	{
+		return chances[index];
+	}
+	
+	/**
+	 * gets the number of outcomes in this table, including the "no drop" outcome
+	 * @return the number of outcomes in this table
+	 */
+	public int getOutcomeCount()
+	{
+		return items.length;
+	}
+	
+	/**
+	 * gets the index of the "no drop" outcome, which is always the last outcome of this table
+	 * @return the index of the "no drop" outcome
+	 */
+	public int getNoDropIndex()
+	{
+		return items.length-1;
+	}
+
+}
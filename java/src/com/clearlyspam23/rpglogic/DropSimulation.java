@@ -0,0 +1,249 @@
+package com.clearlyspam23.rpglogic;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * The result of rolling a table many times with a DropSimulator, holding how many times each outcome occurred.
+ * 
+ * Along with the observed rate of each outcome, this gives a confidence interval around it (a Wilson score interval), 
+ * so it can be checked whether the rate the table is meant to have is believable given what was observed, 
+ * and the number of rolls a player should expect to make before first getting each item.
+ * 
+ * Outcomes are numbered the same way as the AliasDropTable that was rolled, with the last being the "no drop" outcome.
+ * 
+ * @author clearlyspam23
+ *
+ * @param <T> the type of item being dropped
+ */
+public class DropSimulation<T> {
+	
+	/**
+	 * the z score for a 95% confidence interval
+	 */
+	public static final double Z_95 = 1.959963984540054;
+	
+	/**
+	 * the z score for a 99% confidence interval
+	 */
+	public static final double Z_99 = 2.5758293035489004;
+	
+	/**
+	 * the z score for a 99.9% confidence interval, which is a good choice when checking many outcomes at once, since fewer will be off by chance
+	 */
+	public static final double Z_999 = 3.2905267314918945;
+	
+	private final AliasDropTable<T> table;
+	private final long rolls;
+	private final long[] counts;
+	
+	/**
+	 * constructs a new DropSimulation out of the counts of each outcome of the given table
+	 * @param table the table that was rolled
+	 * @param rolls the number of times it was rolled, which must be positive
+	 * @param counts the number of times each outcome occurred
+	 */
+	public DropSimulation(AliasDropTable<T> table, long rolls, long[] counts)
+	{
+		if(rolls<=0)
+			throw new IllegalArgumentException("rolls must be positive, was " + rolls);
+		this.table = table;
+		this.rolls = rolls;
+		this.counts = counts;
+	}
+	
+	/**
+	 * gets the number of times the given outcome occurred
+	 * @param outcome the index of the outcome
+	 * @return the number of times it occurred
+	 */
+	public long getCount(int outcome)
+	{
+		return counts[outcome];
+	}
+	
+	/**
+	 * gets the rate the given outcome occurred at, between 0 and 1
+	 * @param outcome the index of the outcome
+	 * @return the fraction of rolls that gave that outcome
+	 */
+	public double getObservedRate(int outcome)
+	{
+		return rolls > 0 ? (double) counts[outcome]/rolls : 0;
+	}
+	
+	/**
+	 * gets the rate the given outcome is meant to occur at, as given by the table
+	 * @param outcome the index of the outcome
+	 * @return the probability of that outcome, between 0 and 1
+	 */
+	public double getExpectedRate(int outcome)
+	{
+		return table.getChance(outcome);
+	}
+	
+	/**
+	 * gets the lower end of the confidence interval around the observed rate of the given outcome
+	 * @param outcome the index of the outcome
+	 * @param z the z score of the interval, such as Z_95
+	 * @return the lowest rate that is believable given what was observed
+	 */
+	public double getLowerBound(int outcome, double z)
+	{
+		return getCenter(outcome, z) - getHalfWidth(outcome, z);
+	}
+	
+	/**
+	 * gets the upper end of the confidence interval around the observed rate of the given outcome
+	 * @param outcome the index of the outcome
+	 * @param z the z score of the interval, such as Z_95
+	 * @return the highest rate that is believable given what was observed
+	 */
+	public double getUpperBound(int outcome, double z)
+	{
+		return getCenter(outcome, z) + getHalfWidth(outcome, z);
+	}
+	
+	/**
+	 * checks whether the rate the given outcome is meant to occur at is inside the confidence interval around its observed rate
+	 * if it is not, either the table does not drop at the rates it claims to, or (with a chance depending on z) the simulation was unlucky
+	 * @param outcome the index of the outcome
+	 * @param z the z score of the interval, such as Z_95
+	 * @return whether or not the expected rate is believable
+	 */
+	public boolean isConsistent(int outcome, double z)
+	{
+		double expected = getExpectedRate(outcome);
+		return expected>=getLowerBound(outcome, z)&&expected<=getUpperBound(outcome, z);
+	}
+	
+	/**
+	 * checks whether every outcome is consistent with its expected rate, see isConsistent(int, double)
+	 * @param z the z score of the interval, such as Z_999
+	 * @return whether or not every expected rate is believable
+	 */
+	public boolean isConsistent(double z)
+	{
+		for(int i = 0; i < counts.length; i++)
+			if(!isConsistent(i, z))
+				return false;
+		return true;
+	}
+	
+	/**
+	 * gets the average number of rolls it took to get the given outcome, based on its observed rate.
+	 * since every roll is independent, this is also the average number of rolls a player makes before first getting it
+	 * @param outcome the index of the outcome
+	 * @return the average number of rolls per occurrence, or infinity if it never occurred
+	 */
+	public double getObservedRollsToDrop(int outcome)
+	{
+		return counts[outcome] > 0 ? (double) rolls/counts[outcome] : Double.POSITIVE_INFINITY;
+	}
+	
+	/**
+	 * gets the average number of rolls a player makes before first getting the given outcome, based on the rate it is meant to occur at
+	 * @param outcome the index of the outcome
+	 * @return the expected number of rolls before the first occurrence, or infinity if it can never occur
+	 */
+	public double getExpectedRollsToDrop(int outcome)
+	{
+		double chance = getExpectedRate(outcome);
+		return chance > 0 ? 1/chance : Double.POSITIVE_INFINITY;
+	}
+	
+	/**
+	 * gets the number of rolls needed to have at least the given chance of having gotten the given outcome at least once, 
+	 * so for instance getRollsForChance(i, 0.9) is how many rolls 90% of players will need
+	 * @param outcome the index of the outcome
+	 * @param chance the chance of having gotten the outcome, between 0 and 1
+	 * @return the number of rolls needed, or Long.MAX_VALUE if the outcome can never occur
+	 */
+	public long getRollsForChance(int outcome, double chance)
+	{
+		double p = getExpectedRate(outcome);
+		if(p<=0)
+			return Long.MAX_VALUE;
+		if(p>=1)
+			return 1;
+		return (long) Math.ceil(Math.log1p(-chance)/Math.log1p(-p));
+	}
+	
+	/**
+	 * @return the number of times the table was rolled
+	 */
+	public long getRolls()
+	{
+		return rolls;
+	}
+	
+	/**
+	 * @return the number of outcomes, including the "no drop" outcome
+	 */
+	public int getOutcomeCount()
+	{
+		return counts.length;
+	}
+	
+	/**
+	 * @return the table that was rolled
+	 */
+	public AliasDropTable<T> getTable()
+	{
+		return table;
+	}
+	
+	/**
+	 * gives a report of every outcome, one per line, with its expected and observed rates, 95% confidence interval, and rolls to drop, 
+	 * marking any outcome whose expected rate is outside of the interval
+	 */
+	public String toString()
+	{
+		StringBuilder sb = new StringBuilder();
+		sb.append(rolls).append(" rolls\n");
+		for(int i = 0; i < counts.length; i++)
+		{
+			Object item = i==table.getNoDropIndex() ? "(no drop)" : table.getItem(i);
+			sb.append(String.format("%-24s expected %.6g observed %.6g [%.6g, %.6g] rolls to drop %.1f%s%n", 
+					item, getExpectedRate(i), getObservedRate(i), getLowerBound(i, Z_95), getUpperBound(i, Z_95), 
+					getObservedRollsToDrop(i), isConsistent(i, Z_95) ? "" : " <- outside interval"));
+		}
+		return sb.toString();
+	}
+	
+	private double getCenter(int outcome, double z)
+	{
+		double p = getObservedRate(outcome);
+		double z2 = z*z/rolls;
+		return (p + z2/2)/(1 + z2);
+	}
+	
+	private double getHalfWidth(int outcome, double z)
+	{
+		double p = getObservedRate(outcome);
+		double z2 = z*z/rolls;
+		return z*Math.sqrt(p*(1-p)/rolls + z2/(4*rolls))/(1 + z2);
+	}
+
+}
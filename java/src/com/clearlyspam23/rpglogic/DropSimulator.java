@@ -0,0 +1,180 @@
+package com.clearlyspam23.rpglogic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * Rolls drop tables a huge number of times across every core, to check the rates they actually drop items at.
+ * 
+ * Each simulation is split into tasks of up to a million rolls, run across a ForkJoinPool. 
+ * Every task rolls with its own SplittableRandom, split off from the one it was forked from, so tasks never share a generator,
+ * and the same seed always gives the same results, no matter how many threads run it.
+ * Each task counts its rolls into its own primitive histogram, and the histograms are added together as the tasks finish.
+ * 
+ * intended usage is something like:
+ * 
+ * DropSimulator simulator = new DropSimulator();
+ * DropSimulation<Item> result = simulator.simulate(table.compile(), 1000000000L, seed);
+ * System.out.println(result);
+ * 
+ * @author clearlyspam23
+ *
+ */
+public class DropSimulator {
+	
+	private static final int ROLLS_PER_TASK = 1<<20;
+	
+	private final ForkJoinPool pool;
+	
+	/**
+	 * constructs a new DropSimulator, running on the common ForkJoinPool
+	 */
+	public DropSimulator()
+	{
+		this(ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * constructs a new DropSimulator, running on the given ForkJoinPool
+	 * @param pool the pool to run simulations on
+	 */
+	public DropSimulator(ForkJoinPool pool)
+	{
+		this.pool = pool;
+	}
+	
+	/**
+	 * rolls the given table the given number of times, and counts how many times each outcome occurred
+	 * @param table the table to roll
+	 * @param rolls the number of times to roll it, which must be positive
+	 * @param seed the seed of the random number generator, the same seed always gives the same result
+	 * @return the result of the simulation
+	 */
+	public <T> DropSimulation<T> simulate(AliasDropTable<T> table, long rolls, long seed)
+	{
+		checkRolls(rolls);
+		long[] counts = pool.invoke(new RollTask(table, new SplittableRandom(seed), rolls));
+		return new DropSimulation<T>(table, rolls, counts);
+	}
+	
+	/**
+	 * compiles the given table, and then rolls it the given number of times, see simulate(AliasDropTable, long, long)
+	 * @param table the table to roll
+	 * @param rolls the number of times to roll it, which must be positive
+	 * @param seed the seed of the random number generator
+	 * @return the result of the simulation
+	 */
+	public <T> DropSimulation<T> simulate(DropTable<T> table, long rolls, long seed)
+	{
+		checkRolls(rolls);
+		return simulate(table.compile(), rolls, seed);
+	}
+	
+	/**
+	 * rolls every one of the given tables the given number of times, all at once, for checking a whole catalog of tables in one go
+	 * each table is rolled with its own generator, split off from the given seed in order
+	 * @param tables the tables to roll
+	 * @param rolls the number of times to roll each table, which must be positive
+	 * @param seed the seed of the random number generator
+	 * @return the result of each simulation, in the same order as the tables
+	 */
+	public <T> List<DropSimulation<T>> simulateAll(List<? extends AliasDropTable<T>> tables, long rolls, long seed)
+	{
+		checkRolls(rolls);
+		SplittableRandom random = new SplittableRandom(seed);
+		final List<RollTask> tasks = new ArrayList<RollTask>();
+		for(AliasDropTable<T> table : tables)
+			tasks.add(new RollTask(table, random.split(), rolls));
+		pool.invoke(new RecursiveTask<Void>()
+		{
+			private static final long serialVersionUID = 1L;
+			
+			protected Void compute()
+			{
+				ForkJoinTask.invokeAll(tasks);
+				return null;
+			}
+			
+		});
+		List<DropSimulation<T>> results = new ArrayList<DropSimulation<T>>();
+		for(int i = 0; i < tasks.size(); i++)
+			results.add(new DropSimulation<T>(tables.get(i), rolls, tasks.get(i).join()));
+		return results;
+	}
+	
+	private static void checkRolls(long rolls)
+	{
+		if(rolls<=0)
+			throw new IllegalArgumentException("rolls must be positive, was " + rolls);
+	}
+	
+	private static class RollTask extends RecursiveTask<long[]>
+	{
+		private static final long serialVersionUID = 1L;
+		
+		private final AliasDropTable<?> table;
+		private final SplittableRandom random;
+		private final long rolls;
+		
+		public RollTask(AliasDropTable<?> table, SplittableRandom random, long rolls)
+		{
+			this.table = table;
+			this.random = random;
+			this.rolls = rolls;
+		}
+		
+		protected long[] compute()
+		{
+			int outcomes = table.getOutcomeCount();
+			if(rolls<=ROLLS_PER_TASK)
+			{
+				int[] counts = new int[outcomes];
+				table.countValues(random, (int) rolls, counts);
+				long[] ans = new long[outcomes];
+				for(int i = 0; i < outcomes; i++)
+					ans[i] = counts[i];
+				return ans;
+			}
+			//split the generator before forking, so the results do not depend on which thread runs which half
+			long half = rolls/2;
+			RollTask left = new RollTask(table, random.split(), half);
+			RollTask right = new RollTask(table, random, rolls-half);
+			left.fork();
+			long[] ans = right.compute();
+			long[] other = left.join();
+			for(int i = 0; i < outcomes; i++)
+				ans[i]+=other[i];
+			return ans;
+		}
+		
+	}
+
+}
@@ -1,7 +1,9 @@
 package com.clearlyspam23.rpglogic;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.random.RandomGenerator;
 
 /**
 The MIT License (MIT)
@@ -51,6 +53,10 @@ THE SOFTWARE.
  * 
  * Item i = table.getValue();
  * 
+ * entries can also be other DropTables, so for instance a 5% chance of dropping a gem, where the gem is then picked from its own table:
+ * 
+ * table.addTable(gems, 5);
+ * 
  * @author clearlyspam23
  *
  * @param <T> the type of item being dropped
@@ -94,6 +100,25 @@ public class DropTable<T> {
 		table.add(new TableEntry(chance, object));
 	}
 	
+	/**
+	 * Adds another DropTable as an entry of this table, with the given chance to be picked
+	 * whenever this entry is picked, the item dropped is picked from the other table instead, which may itself drop nothing.
+	 * 
+	 * for instance, if a monster should have a 5% chance to drop a gem, and which gem is decided by its own table, you would call:
+	 * table.addTable(gems, 5);
+	 * 
+	 * the other table is not copied, so changes to it are seen by this table
+	 * @param other the table to pick from when this entry is picked
+	 * @param chance the chance for this entry to be picked
+	 * @throws IllegalArgumentException if other is this table, or contains this table through any of its nested tables
+	 */
+	public void addTable(DropTable<? extends T> other, float chance)
+	{
+		if(other.reaches(this, new IdentityHashMap<DropTable<?>, Boolean>()))
+			throw new IllegalArgumentException("a DropTable cannot contain itself, even through other tables");
+		table.add(new TableEntry(chance, other));
+	}
+	
 	/**
 	 * fetches an item out of the drop table, given a value. This value will probably be a randomly generated value.
 	 * depending on the value given and the entries, there is a chance no item will be returned.
@@ -103,16 +128,31 @@ public class DropTable<T> {
 	 * table.getValue(math.random()*100);
 	 * 
 	 * 
+	 * if the value lands on a nested table, that table is rolled again with Math.random(), 
+	 * rather than stretching what is left of the value over it, which would leave a float too few distinct values to reach rare items in deep tables.
+	 * 
 	 * @param value the value to try and fetch out of this table
 	 * @return the item at the given value, or null if the value is greater than the combined chances to drop of all items
 	 */
 	public T getValue(float value)
 	{
-		for(TableEntry e : table)
+		return getValue(value, null);
+	}
+	
+	//nested tables are rolled with the given generator, or Math.random() if it is null
+	private T getValue(float value, RandomGenerator random)
+	{
+		int size = table.size();
+		for(int i = 0; i < size; i++)
 		{
+			TableEntry e = table.get(i);
 			value-=e.chance;
 			if(value<=0)
-				return e.item;
+			{
+				if(e.table==null)
+					return e.item;
+				return random==null ? e.table.getValue() : e.table.getValue(random);
+			}
 		}
 		return null;
 	}
@@ -126,10 +166,137 @@ public class DropTable<T> {
 		return getValue((float) (Math.random()*max));
 	}
 	
+	/**
+	 * fetches an item out of the drop table, using the given random number generator rather than Math.random()
+	 * Math.random() shares a single generator between every thread, so when many threads are rolling at once,
+	 * each thread should pass in its own generator (for instance a SplittableRandom, or ThreadLocalRandom.current())
+	 * nested tables are rolled with the same generator
+	 * @param random the generator to roll with
+	 * @return the item that was dropped, or null if no item is dropped
+	 */
+	public T getValue(RandomGenerator random)
+	{
+		return getValue((float) (random.nextDouble()*max), random);
+	}
+	
+	/**
+	 * rolls this table several times, storing each dropped item in the given array
+	 * rolls that drop nothing store null
+	 * @param random the generator to roll with
+	 * @param out the array to store the results in
+	 * @param offset the first index of out to store a result in
+	 * @param count the amount of times to roll
+	 */
+	public void getValues(RandomGenerator random, T[] out, int offset, int count)
+	{
+		for(int i = 0; i < count; i++)
+			out[offset+i] = getValue(random);
+	}
+	
+	/**
+	 * rolls this table several times, and adds up how many times each entry was dropped
+	 * counts[i] is increased by the amount of times the ith entry added to this table was dropped (or picked, for nested tables), 
+	 * and counts[getEntryCount()] is increased by the amount of times nothing was dropped
+	 * @param random the generator to roll with
+	 * @param rolls the amount of times to roll
+	 * @param counts the array to add the results to, must be at least getEntryCount()+1 long
+	 */
+	public void countValues(RandomGenerator random, int rolls, int[] counts)
+	{
+		for(int i = 0; i < rolls; i++)
+			counts[getIndex((float) (random.nextDouble()*max))]++;
+	}
+	
+	/**
+	 * gets the number of entries added to this table
+	 * @return the number of entries in this table
+	 */
+	public int getEntryCount()
+	{
+		return table.size();
+	}
+	
+	private int getIndex(float value)
+	{
+		int size = table.size();
+		for(int i = 0; i < size; i++)
+		{
+			value-=table.get(i).chance;
+			if(value<=0)
+				return i;
+		}
+		return size;
+	}
+	
+	/**
+	 * compiles this table into an AliasDropTable, which fetches items in constant time rather than scanning every entry.
+	 * the compiled table drops each item at the same rate as this table would, and any chance not covered by an entry becomes the "no drop" outcome.
+	 * 
+	 * nested tables are flattened into the compiled table, so each item of a nested table becomes its own outcome, 
+	 * with the chance of picking that entry times the chance of the nested table dropping it, so unlike getValue, the whole tree is decided by a single roll.
+	 *
+	 * changes made to this table (or any table nested in it) after compiling it are not reflected in the compiled table
+	 * @return a new AliasDropTable, with one outcome per item entry in this table, in the order they were added, and nested tables in place of their entries
+	 */
+	public AliasDropTable<T> compile()
+	{
+		List<Object> items = new ArrayList<Object>();
+		List<Double> chances = new ArrayList<Double>();
+		flatten(1, items, chances, new IdentityHashMap<DropTable<?>, Boolean>());
+		int size = items.size();
+		double[] chanceArray = new double[size];
+		for(int i = 0; i < size; i++)
+			chanceArray[i] = chances.get(i);
+		return new AliasDropTable<T>(items.toArray(), chanceArray);
+	}
+	
+	private void flatten(double scale, List<Object> items, List<Double> chances, IdentityHashMap<DropTable<?>, Boolean> path)
+	{
+		if(path.put(this, Boolean.TRUE)!=null)
+			throw new IllegalStateException("a DropTable cannot contain itself, even through other tables");
+		int size = table.size();
+		//getValue returns the first entry whose running total reaches the value, so each entry only claims
+		//the part of [0, max) that goes past the highest running total before it
+		double covered = 0;
+		double total = 0;
+		for(int i = 0; i < size; i++)
+		{
+			TableEntry e = table.get(i);
+			total+=e.chance;
+			double reach = Math.min(Math.max(total, covered), max);
+			double chance = max > 0 ? (reach-covered)/max : 0;
+			covered = reach;
+			if(e.table==null)
+			{
+				items.add(e.item);
+				chances.add(chance*scale);
+			}
+			else
+			{
+				e.table.flatten(chance*scale, items, chances, path);
+			}
+		}
+		path.remove(this);
+	}
+	
+	//whether target is this table or nested anywhere below it, visiting each table once
+	private boolean reaches(DropTable<?> target, IdentityHashMap<DropTable<?>, Boolean> visited)
+	{
+		if(this==target)
+			return true;
+		if(visited.put(this, Boolean.TRUE)!=null)
+			return false;
+		for(TableEntry e : table)
+			if(e.table!=null&&e.table.reaches(target, visited))
+				return true;
+		return false;
+	}
+	
 	private class TableEntry
 	{
 		public float chance;
 		public T item;
+		public DropTable<? extends T> table;
 		
 		//this table assumes values between 0 and 100
 		
@@ -139,6 +306,12 @@ public class DropTable<T> {
 			this.chance = chance;
 		}
 		
+		public TableEntry(float chance, DropTable<? extends T> table)
+		{
+			this.table = table;
+			this.chance = chance;
+		}
+		
 	}
 
 }
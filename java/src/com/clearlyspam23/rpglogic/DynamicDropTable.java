@@ -0,0 +1,362 @@
+package com.clearlyspam23.rpglogic;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+The MIT License (MIT)
+
+Copyright (c) 2014 John Ader
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+THE SOFTWARE.
+ */
+
+/**
+ * A drop table whose entries can be changed, or removed, at any time, for drop rates that change while the game runs, 
+ * like a pity timer raising the chance of a rare item, or a limited item being taken out once it runs out.
+ * 
+ * Like a DropTable, each entry has a chance out of some maximum (100 by default), and whatever chance is not covered by an entry drops nothing.
+ * Rather than a list, the chances are kept in a Fenwick tree, so adding, changing, or removing an entry, and rolling the table, all take O(log n) time.
+ * Chances are stored as fixed point numbers (in units of 2^-40 of the maximum), so that no matter how many times they are changed, no rounding error builds up.
+ * 
+ * Every entry is given an id when added, which stays the same until it is removed. Ids of removed entries are not handed out again.
+ * 
+ * copy() makes a copy which shares all of its memory with this table, split into pages of 256 entries, 
+ * and only copies a page the first time either table changes something on it.
+ * So, for instance, every player can have their own copy of a shared base table with their own luck applied, 
+ * paying only for the entries their luck actually changes:
+ * 
+ * DynamicDropTable<Item> playerTable = baseTable.copy();
+ * playerTable.updateWeight(rareId, playerTable.getChance(rareId)*2);
+ * 
+ * A table is not thread safe, but copies may be handed to, and changed from, other threads, since pages that are shared are never changed.
+ * 
+ * @author clearlyspam23
+ *
+ * @param <T> the type of item being dropped
+ */
+public class DynamicDropTable<T> {
+	
+	private static final int PAGE_BITS = 8;
+	private static final int PAGE_SIZE = 1<<PAGE_BITS;
+	private static final int PAGE_MASK = PAGE_SIZE-1;
+	private static final double SCALE = 1L<<40;
+	private static final long REMOVED = -1;
+	
+	private final float max;
+	//the tree is 1 indexed as usual, with node i stored at position i-1, so that the capacity is always a whole number of pages
+	private long[][] tree;
+	private Object[] treeOwners;
+	private long[][] weights;
+	private Object[][] items;
+	private Object[] entryOwners;
+	//pages are only changed in place when their owner is this token, which copy() replaces, so that pages shared with a copy are copied first
+	private Object owner = new Object();
+	private int capacity;
+	private int idCount;
+	private int entryCount;
+	
+	/**
+	 * constructs a new, empty, DynamicDropTable, with a default maximum chance of 100
+	 */
+	public DynamicDropTable()
+	{
+		this(100f);
+	}
+	
+	/**
+	 * constructs a new, empty, DynamicDropTable, using the given maximum chance
+	 * @param maxChance the chance that entries' chances are out of
+	 */
+	public DynamicDropTable(float maxChance)
+	{
+		if(!(maxChance>0))
+			throw new IllegalArgumentException("maxChance must be positive, was " + maxChance);
+		max = maxChance;
+		capacity = PAGE_SIZE;
+		tree = new long[][]{new long[PAGE_SIZE]};
+		treeOwners = new Object[]{owner};
+		weights = new long[][]{new long[PAGE_SIZE]};
+		items = new Object[][]{new Object[PAGE_SIZE]};
+		entryOwners = new Object[]{owner};
+	}
+	
+	private DynamicDropTable(DynamicDropTable<T> other)
+	{
+		max = other.max;
+		capacity = other.capacity;
+		idCount = other.idCount;
+		entryCount = other.entryCount;
+		tree = other.tree.clone();
+		treeOwners = other.treeOwners.clone();
+		weights = other.weights.clone();
+		items = other.items.clone();
+		entryOwners = other.entryOwners.clone();
+	}
+	
+	/**
+	 * Adds a new entry to this table, with the given chance to drop
+	 * @param object the item to be dropped
+	 * @param chance the chance for this item to be dropped, out of the maximum chance. chances above the maximum are treated as the maximum
+	 * @return the id of the new entry, used to change or remove it later
+	 */
+	public int addEntry(T object, float chance)
+	{
+		long units = toUnits(chance);
+		if(idCount==capacity)
+			grow();
+		int id = idCount++;
+		entryCount++;
+		writeEntry(id, object, units);
+		addToTree(id, units);
+		return id;
+	}
+	
+	/**
+	 * changes the chance of the entry with the given id to drop
+	 * @param id the id of the entry, as given by addEntry
+	 * @param chance the new chance for that entry to be dropped, out of the maximum chance. chances above the maximum are treated as the maximum
+	 */
+	public void updateWeight(int id, float chance)
+	{
+		long old = getUnits(id);
+		long units = toUnits(chance);
+		writeEntry(id, getItem(id), units);
+		addToTree(id, units-old);
+	}
+	
+	/**
+	 * removes the entry with the given id from this table
+	 * @param id the id of the entry, as given by addEntry
+	 * @return the item of the removed entry
+	 */
+	public T remove(int id)
+	{
+		long old = getUnits(id);
+		T item = getItem(id);
+		writeEntry(id, null, REMOVED);
+		addToTree(id, -old);
+		entryCount--;
+		return item;
+	}
+	
+	/**
+	 * checks if the given id belongs to an entry in this table, meaning it has been added and not removed
+	 * @param id the id to check
+	 * @return whether or not that id is in this table
+	 */
+	public boolean contains(int id)
+	{
+		return id>=0&&id<idCount&&weights[id>>>PAGE_BITS][id&PAGE_MASK]!=REMOVED;
+	}
+	
+	/**
+	 * gets the item of the entry with the given id
+	 * @param id the id of the entry
+	 * @return the item of that entry, or null if it has been removed
+	 */
+	@SuppressWarnings("unchecked")
+	public T getItem(int id)
+	{
+		return (T)items[id>>>PAGE_BITS][id&PAGE_MASK];
+	}
+	
+	/**
+	 * gets the chance of the entry with the given id to drop
+	 * @param id the id of the entry
+	 * @return the chance of that entry, out of the maximum chance
+	 */
+	public float getChance(int id)
+	{
+		return toChance(getUnits(id));
+	}
+	
+	/**
+	 * gets the combined chance of every entry in this table. If this is less than the maximum chance, the rest is the chance of dropping nothing
+	 * @return the combined chance of every entry
+	 */
+	public float getTotalChance()
+	{
+		return toChance(tree[(capacity-1)>>>PAGE_BITS][(capacity-1)&PAGE_MASK]);
+	}
+	
+	/**
+	 * fetches the id of the entry at the given value, in the same way as DropTable.getValue(float), with entries in order of their ids
+	 * @param value the value to try and fetch out of this table, between 0 and the maximum chance
+	 * @return the id of the entry at that value, or -1 if the value is greater than the combined chances of all entries
+	 */
+	public int getIndex(float value)
+	{
+		return getIndexOfUnits((long) (value/max*SCALE));
+	}
+	
+	/**
+	 * fetches an item out of this table, given a value. This value will probably be a randomly generated value.
+	 * @param value the value to try and fetch out of this table, between 0 and the maximum chance
+	 * @return the item at the given value, or null if the value is greater than the combined chances of all entries
+	 */
+	public T getValue(float value)
+	{
+		int id = getIndex(value);
+		return id<0 ? null : getItem(id);
+	}
+	
+	/**
+	 * fetches an item out of this table, at random
+	 * @return the item that was dropped, or null if no item is dropped
+	 */
+	public T getValue()
+	{
+		int id = getIndexOfUnits((long) (Math.random()*SCALE));
+		return id<0 ? null : getItem(id);
+	}
+	
+	/**
+	 * fetches an item out of this table, using the given random number generator rather than Math.random()
+	 * @param random the generator to roll with
+	 * @return the item that was dropped, or null if no item is dropped
+	 */
+	public T getValue(RandomGenerator random)
+	{
+		int id = getIndexOfUnits((long) (random.nextDouble()*SCALE));
+		return id<0 ? null : getItem(id);
+	}
+	
+	/**
+	 * gets the number of entries in this table, not counting removed ones
+	 * @return the number of entries in this table
+	 */
+	public int getEntryCount()
+	{
+		return entryCount;
+	}
+	
+	/**
+	 * gets 1 more than the largest id handed out by this table, including ids of removed entries
+	 * @return the number of ids handed out
+	 */
+	public int getIdCount()
+	{
+		return idCount;
+	}
+	
+	/**
+	 * makes a copy of this table, which can be changed without affecting this table, and the other way around
+	 * the copy shares all of its memory with this table until either one changes, so making a copy only takes time proportional to the number of pages
+	 * @return a copy of this table
+	 */
+	public DynamicDropTable<T> copy()
+	{
+		//neither table can change the pages they now share, so this table has to give up its pages too
+		owner = new Object();
+		return new DynamicDropTable<T>(this);
+	}
+	
+	private long toUnits(float chance)
+	{
+		if(!(chance>=0)||Float.isInfinite(chance))
+			throw new IllegalArgumentException("chance must be finite and not negative, was " + chance);
+		//no entry can drop more often than always, which also keeps every entry to at most 2^40 units, so the totals cannot overflow
+		return Math.round(Math.min(chance, max)/(double)max*SCALE);
+	}
+	
+	private float toChance(long units)
+	{
+		return (float) (units/SCALE*max);
+	}
+	
+	private long getUnits(int id)
+	{
+		if(!contains(id))
+			throw new IllegalArgumentException("no entry with id " + id);
+		return weights[id>>>PAGE_BITS][id&PAGE_MASK];
+	}
+	
+	private int getIndexOfUnits(long value)
+	{
+		//walk down the tree, skipping over every node whose total is not past the value
+		int position = 0;
+		for(int step = capacity; step > 0; step>>>=1)
+		{
+			int next = position+step;
+			if(next<=capacity)
+			{
+				long total = tree[(next-1)>>>PAGE_BITS][(next-1)&PAGE_MASK];
+				if(total<=value)
+				{
+					position = next;
+					value-=total;
+				}
+			}
+		}
+		return position<idCount ? position : -1;
+	}
+	
+	private void addToTree(int id, long delta)
+	{
+		if(delta==0)
+			return;
+		for(int i = id+1; i <= capacity; i+=i&-i)
+		{
+			int page = (i-1)>>>PAGE_BITS;
+			if(treeOwners[page]!=owner)
+			{
+				tree[page] = tree[page].clone();
+				treeOwners[page] = owner;
+			}
+			tree[page][(i-1)&PAGE_MASK]+=delta;
+		}
+	}
+	
+	private void writeEntry(int id, Object item, long units)
+	{
+		int page = id>>>PAGE_BITS;
+		if(entryOwners[page]!=owner)
+		{
+			weights[page] = weights[page].clone();
+			items[page] = items[page].clone();
+			entryOwners[page] = owner;
+		}
+		weights[page][id&PAGE_MASK] = units;
+		items[page][id&PAGE_MASK] = item;
+	}
+	
+	private void grow()
+	{
+		int pages = capacity>>>PAGE_BITS;
+		tree = Arrays.copyOf(tree, pages*2);
+		treeOwners = Arrays.copyOf(treeOwners, pages*2);
+		weights = Arrays.copyOf(weights, pages*2);
+		items = Arrays.copyOf(items, pages*2);
+		entryOwners = Arrays.copyOf(entryOwners, pages*2);
+		for(int i = pages; i < pages*2; i++)
+		{
+			tree[i] = new long[PAGE_SIZE];
+			weights[i] = new long[PAGE_SIZE];
+			items[i] = new Object[PAGE_SIZE];
+			treeOwners[i] = owner;
+			entryOwners[i] = owner;
+		}
+		//doubling the capacity only adds one node covering the old entries, the new root, which starts out as the old root's total
+		long total = tree[pages-1][PAGE_MASK];
+		capacity*=2;
+		tree[pages*2-1][PAGE_MASK] = total;
+	}
+
+}